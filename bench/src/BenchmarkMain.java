@@ -0,0 +1,16 @@
+/**
+ * Execution: java BenchmarkMain [JMH options, e.g. HandBenchmark -t 4]
+ *
+ * Runs the GoFish JMH benchmarks. With no arguments, runs all of them.
+ */
+
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.io.IOException;
+
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        org.openjdk.jmh.Main.main(args);
+    }
+}
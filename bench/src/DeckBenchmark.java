@@ -0,0 +1,69 @@
+/**
+ * JMH benchmarks for creating, shuffling and dealing a Deck.
+ */
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeckBenchmark {
+
+    private Deck deck;
+    private SplittableRandom rand;
+    private Player[] players;
+
+    @Setup
+    public void setUp(){
+        deck = new Deck();
+        rand = new SplittableRandom(42);
+        players = new Player[]{new Player("Player 1", new RandomStrategy()), new Player("Player 2", new RandomStrategy())};
+    }
+
+    @Benchmark
+    public Deck construct(){
+        return new Deck();
+    }
+
+    @Benchmark
+    public Deck resetAndShuffle(){
+        deck.reset();
+        deck.shuffleDeck(rand);
+        return deck;
+    }
+
+    @Benchmark
+    public Player[] resetShuffleAndDeal(){
+        deck.reset();
+        deck.shuffleDeck(rand);
+        players[0].setHand(0);
+        players[1].setHand(0);
+        deck.dealCards(players, 7, SilentListener.INSTANCE);
+        return players;
+    }
+
+    @Benchmark
+    public int drawWholeDeck(){
+        deck.reset();
+        int sum = 0;
+        while (!deck.isEmpty()){
+            sum += deck.getTopCard().getIndex();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * JMH benchmark for whole headless games between two RandomStrategy players: games per second per thread.
+ * Run with -t to measure several threads, each with its own Deck and strategies.
+ */
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+
+    @Param({"PAIRS", "BOOKS", "SINGLES", "THREES"})
+    public GameMode gameMode;
+
+    private Strategy[] strategies;
+    private Deck deck;
+    private long seed;
+
+    @Setup
+    public void setUp(){
+        strategies = new Strategy[]{new RandomStrategy(), new RandomStrategy()};
+        deck = new Deck();
+    }
+
+    @Benchmark
+    public GameResult simulate(){
+        return GoFish.simulate(gameMode, seed++, strategies, deck);
+    }
+
+    @Benchmark
+    public GameResult simulateNewDeck(){
+        return GoFish.simulate(gameMode, seed++, strategies);
+    }
+}
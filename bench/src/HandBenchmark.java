@@ -0,0 +1,112 @@
+/**
+ * JMH benchmarks for the hand operations at the heart of a turn: the Rules' checkStartingHand and handOver,
+ * moving the cards asked for from the opponent's hand to the asker's, and doYouHaveAny, in every game mode.
+ *
+ * Each operation changes the hands it works on, so every invocation first puts the starting hands back
+ * with Player.setHand(); that costs a few nanoseconds and is measured too (see setHandOnly for the baseline).
+ */
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HandBenchmark {
+
+    //number of different starting positions cycled through, so the branch predictor can't memorize one
+    private static final int POSITIONS = 1024;
+
+    @Param({"PAIRS", "BOOKS", "SINGLES", "THREES"})
+    public GameMode gameMode;
+
+    private GoFish game;
+    private Rules rules;
+    private Player current;
+    private Player opponent;
+    private long[] currentHands;
+    private long[] opponentHands;
+    private Rank[] askedRanks;
+    private int next;
+
+    @Setup
+    public void setUp(){
+        current = new Player("Current", new RandomStrategy());
+        opponent = new Player("Opponent", new RandomStrategy());
+        game = new GoFish(gameMode, 1, new Player[]{current, opponent});
+        rules = gameMode.getRules();
+
+        //deal random 7-card hands from a shuffled deck, and ask for a rank in the current player's hand
+        SplittableRandom rand = new SplittableRandom(42);
+        Deck deck = new Deck();
+        currentHands = new long[POSITIONS];
+        opponentHands = new long[POSITIONS];
+        askedRanks = new Rank[POSITIONS];
+        for (int i = 0; i < POSITIONS; i++){
+            deck.reset();
+            deck.shuffleDeck(rand);
+            for (int j = 0; j < 7; j++){
+                currentHands[i] |= 1L << deck.getTopCard().getIndex();
+                opponentHands[i] |= 1L << deck.getTopCard().getIndex();
+            }
+            int pos = rand.nextInt(7);
+            long cards = currentHands[i];
+            for (int j = 0; j < pos; j++){
+                cards &= cards - 1;
+            }
+            askedRanks[i] = Card.rankOf(Long.numberOfTrailingZeros(cards));
+        }
+    }
+
+    private int nextPosition(){
+        int i = next;
+        next = (i + 1) & (POSITIONS - 1);
+        current.setHand(currentHands[i]);
+        opponent.setHand(opponentHands[i]);
+        return i;
+    }
+
+    @Benchmark
+    public int setHandOnly(){
+        return nextPosition();
+    }
+
+    @Benchmark
+    public int checkStartingHand(){
+        nextPosition();
+        rules.checkStartingHand(current, SilentListener.INSTANCE);
+        return current.getHandSize();
+    }
+
+    /**
+     * The transfer of an ask, as doYouHaveAny does it: the opponent gives up the rank and the asker takes the cards.
+     */
+    @Benchmark
+    public long removeCards(){
+        int i = nextPosition();
+        long cards = opponent.removeRank(askedRanks[i], rules.getMaxHandedOver());
+        current.addCards(cards);
+        return cards;
+    }
+
+    @Benchmark
+    public boolean doYouHaveAny(){
+        int i = nextPosition();
+        return game.doYouHaveAny(current, opponent, askedRanks[i]);
+    }
+}
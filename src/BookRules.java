@@ -0,0 +1,65 @@
+/**
+ * Gameplays where sets are books: the books gameplay (books of 4, and the opponent hands over every card of the
+ * rank asked for), and variants with smaller books or fewer cards handed over.
+ */
+public final class BookRules implements Rules {
+    private static final Rank[] RANKS = Rank.values();
+
+    private final int bookSize;
+    private final int maxHandedOver;
+
+    /**
+     * @param bookSize (int) the cards of one rank that make a book, 3 or 4
+     * @param maxHandedOver (int) the most cards of the rank asked for that the opponent hands over
+     */
+    public BookRules(int bookSize, int maxHandedOver){
+        this.bookSize = bookSize;
+        this.maxHandedOver = maxHandedOver;
+    }
+
+    public int getSetSize(){
+        return bookSize;
+    }
+
+    public int getMaxHandedOver(){
+        return maxHandedOver;
+    }
+
+    public int getScore(Player player){
+        return player.getNumBooks();
+    }
+
+    public void checkStartingHand(Player player, GameEventListener listener){
+        for (Rank value : RANKS){
+            if (player.countRank(value) >= bookSize){
+                player.removeRank(value, bookSize);
+                player.addBook();
+                listener.startingBook(player, value);
+            }
+        }
+    }
+
+    public void handOver(Player current, Player opponent, Rank rank, long cards, GameEventListener listener){
+        current.addCards(cards);
+        listener.handedOver(current, opponent, rank, cards);
+
+        //now, check the current player's hand to see if that was enough for a book
+        if (current.countRank(rank) >= bookSize){
+            current.addBook();
+            current.removeRank(rank, bookSize);
+            listener.bookMade(current, rank);
+        }
+    }
+
+    public void draw(Player player, Card card, GameEventListener listener){
+        Rank value = card.getValue();
+        if (player.countRank(value) == bookSize - 1) { //if a book is made, remove cards from hand and dont give the top card
+            player.addBook();
+            player.removeRank(value, bookSize - 1);
+            listener.bookMade(player, value);
+        }
+        else{ //if they didn't make a book, give them the card
+            player.addCard(card);
+        }
+    }
+}
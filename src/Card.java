@@ -1,10 +1,40 @@
-public class Card {
-    private Rank value;
-    private Suit suit;
+/**
+ * One of the 52 playing cards. There is exactly one Card object for each card, made when the class loads and
+ * looked up with of() or fromIndex(), so cards can be compared with == and dealing a game creates no Cards.
+ * Decks and hands store card indexes (see getIndex()) and turn them back into Cards only to report them.
+ */
+public final class Card {
+    private static final Rank[] RANKS = Rank.values();
+    private static final Suit[] SUITS = Suit.values();
+    private static final Card[] CARDS = new Card[52]; //by index
 
-    public Card(Rank value, Suit suit){
+    static {
+        for (int index = 0; index < CARDS.length; index++){
+            CARDS[index] = new Card(RANKS[index >> 2], SUITS[index & 3]);
+        }
+    }
+
+    private final Rank value;
+    private final Suit suit;
+    private final byte index;
+    private final String name;
+    private final String abbrev;
+
+    private Card(Rank value, Suit suit){
         this.value = value;
         this.suit = suit;
+        this.index = (byte) indexOf(value, suit);
+        this.name = Rank.rankToString(value) + " of " + Suit.suitToString(suit);
+        this.abbrev = Rank.rankToAbbrev(value) + Suit.suitToChar(suit);
+    }
+
+    /**
+     * @param value (Rank)
+     * @param suit (Suit)
+     * @return (Card) the one Card of that rank and suit
+     */
+    public static Card of(Rank value, Suit suit){
+        return CARDS[indexOf(value, suit)];
     }
 
     public Rank getValue(){
@@ -15,9 +45,44 @@ public class Card {
         return suit;
     }
 
-    public String toString(){
-        return Rank.rankToString(value) + " of " + Suit.suitToString(suit);
+    /**
+     * Gives each of the 52 cards a distinct number from 0 to 51, grouped by rank: rank*4 + suit.
+     * Used as the card's bit position in a Player's hand.
+     * @return (int) the card's index
+     */
+    public int getIndex(){
+        return index;
+    }
+
+    public static int indexOf(Rank rank, Suit suit){
+        return rank.ordinal() * 4 + suit.ordinal();
+    }
+
+    /**
+     * @param index (int) a card index from 0 to 51
+     * @return (Rank) the rank of the card with that index
+     */
+    public static Rank rankOf(int index){
+        return RANKS[index >> 2];
+    }
+
+    /**
+     * @param index (int) a card index from 0 to 51
+     * @return (Card) the one Card with that index
+     */
+    public static Card fromIndex(int index){
+        return CARDS[index];
+    }
+
+    /**
+     * @return (String) the card in short, such as "10H" or "QS"
+     */
+    public String getAbbrev(){
+        return abbrev;
+    }
 
+    public String toString(){
+        return name;
     }
 
 /*
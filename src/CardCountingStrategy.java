@@ -0,0 +1,170 @@
+/**
+ * A computer player that remembers what it has seen: the ranks its opponent asks for, the cards handed
+ * back and forth, the asks its opponent said "Go Fish" to, and every pair and book made.
+ *
+ * It keeps a few int arrays indexed by rank, updated in constant time per event, and chooses a rank by:
+ * 1. asking for a rank the opponent is known to hold, preferring the one it holds the most of;
+ * 2. otherwise, asking for the rank with the most unseen cards that the opponent hasn't just denied having;
+ * 3. otherwise, asking for a random rank in its hand.
+ * Choosing costs one pass over the 13 ranks and allocates nothing.
+ *
+ * The strategy listens to the game it plays in (GoFish attaches it automatically), so each seat needs its
+ * own instance. It resets itself at the start of every game, so one instance can play many games in a row.
+ */
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+public class CardCountingStrategy implements Strategy, GameEventListener {
+    private static final Rank[] RANKS = Rank.values();
+
+    private Player me;
+    private GameMode gameMode;
+    private final int[] opponentHolds = new int[13]; //cards of each rank the opponent is known to hold
+    private final boolean[] opponentDenied = new boolean[13]; //opponent had none when last asked, and hasn't drawn since
+    private final int[] outOfPlay = new int[13]; //cards of each rank already made into pairs or books
+    private int setSize; //cards in one pair or book of the rules being played
+    private boolean handsOverAll; //an ask always takes every card of the rank the opponent holds
+
+    public Rank chooseRank(Player player, Player opponent, SplittableRandom rand){
+        Rank best = null;
+        int bestScore = Integer.MIN_VALUE;
+        int ties = 0;
+        for (Rank rank : RANKS){
+            int mine = player.countRank(rank);
+            if (mine == 0){
+                continue;
+            }
+            int r = rank.ordinal();
+            int score;
+            if (opponentHolds[r] > 0){
+                score = 100 + mine; //a sure thing
+            }
+            else if (opponentDenied[r]){
+                score = -1; //only if there is nothing else to ask for
+            }
+            else{
+                score = 4 - mine - outOfPlay[r]; //cards of this rank the opponent or the deck could have
+            }
+
+            if (score > bestScore){
+                best = rank;
+                bestScore = score;
+                ties = 1;
+            }
+            else if (score == bestScore && rand.nextInt(++ties) == 0){ //pick evenly among equally good ranks
+                best = rank;
+            }
+        }
+        return best;
+    }
+
+    public String getName(){
+        return "CardCounting";
+    }
+
+    /**
+     * @return (GameMode) the rules of the game being played
+     */
+    protected GameMode getGameMode(){
+        return gameMode;
+    }
+
+    /**
+     * @param rank (Rank)
+     * @return (int) how many cards of the rank the opponent is known to hold
+     */
+    protected int getOpponentHolds(Rank rank){
+        return opponentHolds[rank.ordinal()];
+    }
+
+    /**
+     * @param rank (Rank)
+     * @return (boolean) true if the opponent had none of the rank when last asked, and hasn't drawn since
+     */
+    protected boolean isOpponentDenied(Rank rank){
+        return opponentDenied[rank.ordinal()];
+    }
+
+    /**
+     * @param rank (Rank)
+     * @return (int) how many cards of the rank have been made into pairs or books
+     */
+    protected int getOutOfPlay(Rank rank){
+        return outOfPlay[rank.ordinal()];
+    }
+
+    public void gameStarted(GameMode gameMode, Player[] players){
+        this.gameMode = gameMode;
+        Rules rules = gameMode.getRules();
+        setSize = rules.getSetSize();
+        handsOverAll = rules.getMaxHandedOver() >= setSize - 1; //no one holds a whole set
+        me = players[0].getStrategy() == this ? players[0] : players[1];
+        Arrays.fill(opponentHolds, 0);
+        Arrays.fill(opponentDenied, false);
+        Arrays.fill(outOfPlay, 0);
+    }
+
+    public void startingPair(Player player, Card card1, Card card2){
+        outOfPlay[card1.getValue().ordinal()] += 2;
+    }
+
+    public void startingBook(Player player, Rank rank){
+        outOfPlay[rank.ordinal()] += setSize;
+    }
+
+    public void asked(Player current, Player opponent, Rank rank){
+        if (current != me){ //they must hold the rank they ask for
+            int r = rank.ordinal();
+            opponentHolds[r] = Math.max(opponentHolds[r], 1);
+        }
+    }
+
+    public void handedOver(Player current, Player opponent, Rank rank, long cards){
+        int r = rank.ordinal();
+        if (current == me){
+            if (handsOverAll){
+                opponentHolds[r] = 0; //they hand over everything they have
+            }
+            else{ //in singles they hand over one card, and may have more
+                opponentHolds[r] = Math.max(0, opponentHolds[r] - Long.bitCount(cards));
+            }
+        }
+        else{
+            opponentHolds[r] += Long.bitCount(cards); //they now hold the cards we gave them
+        }
+    }
+
+    public void goFish(Player current, Player opponent, Rank rank){
+        if (current == me){
+            int r = rank.ordinal();
+            opponentHolds[r] = 0;
+            opponentDenied[r] = true;
+        }
+    }
+
+    public void cardDrawn(Player player, Card card){
+        if (player != me){ //the card they drew could be any rank
+            Arrays.fill(opponentDenied, false);
+        }
+    }
+
+    public void pairMade(Player player, Rank rank){
+        int r = rank.ordinal();
+        outOfPlay[r] += 2;
+        if (player != me){
+            opponentHolds[r] = 0;
+        }
+    }
+
+    public void bookMade(Player player, Rank rank){
+        int r = rank.ordinal();
+        outOfPlay[r] += setSize;
+        if (player != me){ //with books of 3 they can keep a fourth card
+            opponentHolds[r] = Math.max(0, opponentHolds[r] - setSize);
+        }
+        else{
+            opponentHolds[r] = Math.min(opponentHolds[r], 4 - outOfPlay[r] - me.countRank(rank));
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/**
+ * One player's connection to GoFishServer, served by its own thread.
+ *
+ * Commands (one per line):
+ *   PLAY mode name          start a game against the computer; mode is pairs, books, singles or threes
+ *   JOIN mode name          wait for another player who joins with the same rules
+ *   ASK rank                ask the opponent for a rank, e.g. ASK 10 or ASK q
+ *   HAND                    show your hand
+ *   QUIT                    leave the server
+ * Everything the server sends is described in GoFishServer.
+ */
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+public class ClientConnection implements Runnable {
+    private final GoFishServer server;
+    private final Socket socket;
+    private final OutputStream out;
+    private TextBuffer pending = new TextBuffer(1024); //lines queued since the last flush()
+    private TextBuffer writing = new TextBuffer(1024); //lines being written by flush(), guarded by writeLock
+    private final Object writeLock = new Object();
+    private String name;
+    private volatile Table table;
+
+    public ClientConnection(GoFishServer server, Socket socket) throws IOException {
+        this.server = server;
+        this.socket = socket;
+        this.out = socket.getOutputStream();
+    }
+
+    public void run(){
+        try (socket) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            send("WELCOME");
+            flush();
+            String line;
+            while ((line = in.readLine()) != null){
+                if (!handle(line.trim().split("\\s+"))){
+                    break;
+                }
+            }
+        }
+        catch (IOException e){
+            //the client went away; fall through and leave the table
+        }
+        finally {
+            server.disconnected(this);
+            Table current = table;
+            if (current != null){
+                current.leave(this);
+            }
+        }
+    }
+
+    /**
+     * Carries out one command.
+     * @param words (String[]) the command and its arguments
+     * @return (boolean) false if the client asked to quit
+     */
+    private boolean handle(String[] words){
+        String command = words[0].toUpperCase();
+        switch (command) {
+            case "PLAY":
+            case "JOIN":
+                if (server.isWaiting(this)){ //checked first: a waiting connection is seated before it stops waiting
+                    error("already waiting for an opponent");
+                    break;
+                }
+                if (table != null){
+                    error("already at a table");
+                    break;
+                }
+                GameMode gameMode = words.length == 3 ? GoFish.parseGameMode(words[1]) : null;
+                if (gameMode == null){
+                    error("usage: " + command + " pairs|books|singles|threes name");
+                    break;
+                }
+                name = words[2];
+                if (command.equals("PLAY")){
+                    server.playComputer(this, gameMode);
+                }
+                else{
+                    server.join(this, gameMode);
+                }
+                break;
+            case "ASK":
+                Table current = table;
+                Rank rank = words.length == 2 ? GoFish.parseRank(words[1]) : null;
+                if (current == null){
+                    error("not at a table");
+                }
+                else if (rank == null){
+                    error("usage: ASK 2-10|J|Q|K|A");
+                }
+                else{
+                    current.ask(this, rank);
+                }
+                break;
+            case "HAND":
+                if (table == null){
+                    error("not at a table");
+                }
+                else{
+                    table.showHand(this);
+                }
+                break;
+            case "QUIT":
+                return false;
+            default:
+                error("unknown command " + words[0]);
+                break;
+        }
+        return true;
+    }
+
+    private void error(String message){
+        send("ERROR " + message);
+        flush();
+    }
+
+    /**
+     * Queues a line for the client; nothing is written until flush().
+     * @param line (String) the line to send, without the newline
+     */
+    public synchronized void send(String line){
+        pending.append(line).newline();
+    }
+
+    /**
+     * Queues a line for the client; nothing is written until flush().
+     * @param line (TextBuffer) the line to send, without the newline; it is copied, so it can be reused
+     */
+    public synchronized void send(TextBuffer line){
+        pending.append(line).newline();
+    }
+
+    /**
+     * Writes every queued line to the socket at once. The queue is swapped out under the connection's lock and
+     * written after it is released, so lines can be queued (e.g. by a table) while a slow client is still being written to.
+     */
+    public void flush(){
+        synchronized (writeLock){
+            synchronized (this){
+                TextBuffer lines = pending;
+                pending = writing;
+                writing = lines;
+            }
+            if (writing.length() == 0){
+                return;
+            }
+            try {
+                writing.writeTo(out);
+                out.flush();
+            }
+            catch (IOException e){
+                //the read loop will notice the connection is gone
+            }
+            finally {
+                writing.clear();
+            }
+        }
+    }
+
+    /**
+     * Called by the server when this connection is seated at a table.
+     */
+    void seatedAt(Table table){
+        this.table = table;
+    }
+
+    /**
+     * Called by a table when its game ends or is abandoned.
+     */
+    void leftTable(Table table){
+        if (this.table == table){
+            this.table = null;
+        }
+    }
+
+    public String getName(){
+        return name;
+    }
+}
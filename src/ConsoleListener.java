@@ -0,0 +1,223 @@
+/**
+ * Narrates a game of Go Fish as text. Lines are collected in a TextBuffer and written out once per turn
+ * (and whenever flush() is called, e.g. before asking a human for input), instead of one print per card.
+ * Card and rank names come from the buffer's prebuilt bytes, so narrating a turn allocates nothing. The bytes are
+ * UTF-8, so they are written straight out only when they are ASCII or the stream writes UTF-8; otherwise (e.g. a
+ * player's name with accents on a Latin-1 console) the text goes through the stream's own charset.
+ * Only a human player's own cards are shown.
+ */
+
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+public class ConsoleListener implements GameEventListener {
+    private final PrintStream out;
+    private final boolean utf8; //the stream writes UTF-8, so the buffer's bytes are always right for it
+    private final TextBuffer buffer = new TextBuffer(1024);
+    private GameMode gameMode;
+    private boolean asking; //true between an ask and the end of that ask, for the "Go again!" wording
+
+    public ConsoleListener(){
+        this(System.out, consoleCharset());
+    }
+
+    /**
+     * @param out (PrintStream) where to write the narration, in the default charset
+     */
+    public ConsoleListener(PrintStream out){
+        this(out, Charset.defaultCharset());
+    }
+
+    /**
+     * @param out (PrintStream) where to write the narration
+     * @param charset (Charset) the stream's charset, which must be ASCII-compatible
+     */
+    public ConsoleListener(PrintStream out, Charset charset){
+        this.out = out;
+        this.utf8 = charset.equals(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return (Charset) the charset System.out writes in
+     */
+    private static Charset consoleCharset(){
+        String name = System.getProperty("sun.stdout.encoding"); //set for a Windows console
+        try {
+            return name == null ? Charset.defaultCharset() : Charset.forName(name);
+        }
+        catch (IllegalArgumentException e){
+            return Charset.defaultCharset();
+        }
+    }
+
+    /**
+     * Writes out everything buffered so far.
+     */
+    public void flush(){
+        if (buffer.length() > 0){
+            if (utf8 || buffer.isAscii()){
+                buffer.writeTo(out);
+            }
+            else{
+                out.print(buffer.toString()); //encoded in the stream's charset
+            }
+            out.flush();
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Shows a human player their hand and writes everything out, before they choose a rank.
+     * @param player (Player) the human player
+     */
+    public void showHand(Player player){
+        buffer.append("Here's your hand: \n").appendHand(player.getHandMask());
+        flush();
+    }
+
+    private void println(String line){
+        buffer.append(line).newline();
+    }
+
+    public void gameStarted(GameMode gameMode, Player[] players){
+        this.gameMode = gameMode;
+        println("Dealing cards...");
+    }
+
+    public void gameResumed(GameMode gameMode, Player[] players){
+        this.gameMode = gameMode;
+        println("Resuming the game...");
+    }
+
+    public void cardDealt(Player player, Card card){
+        if(player.isHuman()){
+            buffer.append('\t').append(player.name).append(" receives the ").appendCard(card).append(".\n");
+        }
+    }
+
+    public void handsDealt(Player[] players){
+        if(gameMode == GameMode.PAIRS){
+            println("\n\tChecking for pairs...");
+        }
+        else{
+            println("\n\tChecking for books...");
+        }
+    }
+
+    public void startingPair(Player player, Card card1, Card card2){
+        buffer.append(player.name).append(" found a pair: \n\t") //prints the pair found
+                .appendCard(card1).append(" and ").appendCard(card2).newline();
+    }
+
+    public void startingBook(Player player, Rank rank){
+        buffer.append(player.name).append(" found a book of ").appendRank(rank).append("s.\n");
+    }
+
+    public void handsChecked(Player[] players){
+        for (Player player : players) {
+            if(gameMode == GameMode.PAIRS){
+                buffer.append(player.name).append(" has ").append(player.getNumPairs()).append(" pairs total.\n");
+            }
+            else{
+                buffer.append(player.name).append(" has ").append(player.getNumBooks()).append(" books total.\n");
+            }
+        }
+    }
+
+    public void turnStarted(Player player){
+        asking = false;
+        buffer.append("\n===").append(player.name).append("'s turn!===\n");
+    }
+
+    public void handEmpty(Player player){
+        println("... but their hand is empty! Go fish!");
+    }
+
+    public void asked(Player current, Player opponent, Rank rank){
+        asking = true;
+        buffer.append(current.name).append(" asks ").append(opponent.name)
+                .append(" if they have any ").appendRank(rank).append("s.\n");
+    }
+
+    public void handedOver(Player current, Player opponent, Rank rank, long cards){
+        if(gameMode == GameMode.PAIRS){
+            Card card = Card.fromIndex(Long.numberOfTrailingZeros(cards));
+            buffer.append("Yes! ").append(opponent.name).append(" hands over the ").appendCard(card).append(".\n");
+        }
+        else{
+            println("Success!");
+            for(long rest = cards; rest != 0; rest &= rest - 1){
+                Card card = Card.fromIndex(Long.numberOfTrailingZeros(rest));
+                buffer.append(opponent.name).append(" hands over the ").appendCard(card).append(".\n");
+            }
+            if(current.countRank(rank) < gameMode.getRules().getSetSize()){
+                println("It's not enough for a book, but you may still go again!");
+            }
+        }
+    }
+
+    public void goFish(Player current, Player opponent, Rank rank){
+        asking = false;
+        buffer.append("No ").appendRank(rank).append("'s. Go Fish!\n");
+    }
+
+    public void cardDrawn(Player player, Card card){
+        if (player.isHuman()) { //if human, tell them what card was drawn
+            buffer.append(player.name).append(" drew the ").appendCard(card).append(" from the deck. \n");
+        }
+    }
+
+    public void deckEmpty(Player player){
+        println("....but the deck is empty!");
+    }
+
+    public void pairMade(Player player, Rank rank){
+        buffer.append(player.name).append(" made a pair of ").appendRank(rank)
+                .append("s, and now has ").append(player.getNumPairs());
+        if(asking){
+            buffer.append(" total pairs. Go again!\n");
+        }
+        else{
+            buffer.append(" total pairs! \n");
+        }
+    }
+
+    public void bookMade(Player player, Rank rank){
+        if(asking){
+            buffer.append(player.name).append(" made a books of ").appendRank(rank)
+                    .append("s, and now has ").append(player.getNumBooks()).append(" total books. Go again!\n");
+        }
+        else{
+            buffer.append(player.name).append(" made a book of ").appendRank(rank)
+                    .append("'s, and now has ").append(player.getNumBooks()).append(" total books!\n");
+        }
+    }
+
+    public void turnEnded(Player player){
+        flush();
+    }
+
+    public void gameOver(Player[] players, Player winner){
+        println("\nSince there are no more cards in play, the game is over!");
+        println("\n=== F I N A L  S C O R E ===");
+        if(winner==null){
+            println("\nIt's a draw!");
+        }
+        else{
+            buffer.append('\n').append(winner.name).append(" is the winner of this match!\n");
+        }
+
+        if(gameMode == GameMode.PAIRS){
+            buffer.append(players[0].name).append(" had ").append(players[0].getNumPairs()).append(" pairs, ")
+                    .append(" while ")
+                    .append(players[1].name).append(" had ").append(players[1].getNumPairs()).append(" pairs. \n");
+        }
+        else{
+            buffer.append(players[0].name).append(" had ").append(players[0].getNumBooks()).append(" books, ")
+                    .append(" while ")
+                    .append(players[1].name).append(" had ").append(players[1].getNumBooks()).append(" books.\n");
+        }
+        flush();
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * Counts events across one or more games, for quick metrics. Not thread-safe: give each worker its own.
+ */
+public class CountingListener implements GameEventListener {
+    private long games;
+    private long turns;
+    private long asks;
+    private long successfulAsks;
+    private long cardsHandedOver;
+    private long fishDraws;
+    private long pairs;
+    private long books;
+
+    public void gameStarted(GameMode gameMode, Player[] players){
+        games++;
+    }
+
+    public void asked(Player current, Player opponent, Rank rank){
+        asks++;
+    }
+
+    public void handedOver(Player current, Player opponent, Rank rank, long cards){
+        successfulAsks++;
+        cardsHandedOver += Long.bitCount(cards);
+    }
+
+    public void cardDrawn(Player player, Card card){
+        fishDraws++;
+    }
+
+    public void startingPair(Player player, Card card1, Card card2){
+        pairs++;
+    }
+
+    public void pairMade(Player player, Rank rank){
+        pairs++;
+    }
+
+    public void startingBook(Player player, Rank rank){
+        books++;
+    }
+
+    public void bookMade(Player player, Rank rank){
+        books++;
+    }
+
+    public void turnEnded(Player player){
+        turns++;
+    }
+
+    public long getGames(){
+        return games;
+    }
+
+    public long getTurns(){
+        return turns;
+    }
+
+    public long getAsks(){
+        return asks;
+    }
+
+    public long getSuccessfulAsks(){
+        return successfulAsks;
+    }
+
+    public long getCardsHandedOver(){
+        return cardsHandedOver;
+    }
+
+    public long getFishDraws(){
+        return fishDraws;
+    }
+
+    public long getPairs(){
+        return pairs;
+    }
+
+    public long getBooks(){
+        return books;
+    }
+
+    public String toString(){
+        return games + " games, " + turns + " turns, " + asks + " asks (" + successfulAsks + " successful, "
+                + cardsHandedOver + " cards handed over), " + fishDraws + " fish draws, "
+                + pairs + " pairs, " + books + " books";
+    }
+}
@@ -2,70 +2,120 @@
  *
  * This class is based off of Orcale's Deck and Deck3 classes.
  * Use in conjunction with Rank and Suit enums to create a deck of Cards.
+ *
+ * The cards are kept in a fixed array of card indexes (see Card.getIndex()), and drawing just moves the top of
+ * the deck forward, so a Deck can be reset and reshuffled for the next game without creating anything new.
  */
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.SplittableRandom;
 
 public class Deck {
     public static int numSuits = 4;
     public static int numRanks = 13;
-    private ArrayList<Card> cards;
+    private static final byte[] NEW_DECK = new byte[52]; //a new deck's order: by suit, then rank
+    private final byte[] cards = new byte[NEW_DECK.length];
+    private int top; //position of the top card; cards before it have already been drawn
 
-    public Deck(){
-        this.cards = new ArrayList<>();
+    static {
+        int i = 0;
         for(Suit suit: Suit.values()){
             for (Rank rank: Rank.values()){
-                Card newCard = new Card(rank, suit);
-                cards.add(newCard);
+                NEW_DECK[i++] = (byte) Card.indexOf(rank, suit);
             }
         }
     }
 
+    public Deck(){
+        reset();
+    }
+
+    /**
+     * Puts all 52 cards back in the deck, in their original order.
+     */
+    public void reset(){
+        System.arraycopy(NEW_DECK, 0, cards, 0, NEW_DECK.length);
+        top = 0;
+    }
+
+    /**
+     * Makes the deck hold just the given cards, the first one on top, as if the rest had been drawn.
+     * @param cardIndexes (int[]) card indexes (see Card.getIndex()), top card first
+     * @param count (int) how many of the indexes to use
+     */
+    public void setCards(int[] cardIndexes, int count){
+        top = cards.length - count;
+        for (int i = 0; i < count; i++){
+            cards[top + i] = (byte) cardIndexes[i];
+        }
+    }
+
     /**
      * Gets the top card and removes it from the deck.
      * @return (Card) topCard the first card in the deck.
      */
     public Card getTopCard(){
-        Card topCard = cards.get(0);
-        cards.remove(0);
-        return topCard;
+        return Card.fromIndex(cards[top++]);
     }
 
     /**
      * Randomly shuffles the deck.
      */
     public void shuffleDeck( ){
-        Collections.shuffle(this.cards);
+        shuffleDeck(new SplittableRandom());
 //        System.out.println("\tSHUFFLED DECK: ");
 //        for (Card card:deck){
 //            System.out.println(card.getValue() + " of " + card.getSuit());
 //        }
     }
 
+    /**
+     * Shuffles the cards left in the deck in place (Fisher-Yates), using the given random number generator,
+     * so that a game can be repeated from its seed.
+     * @param rand (SplittableRandom) the game's random number generator
+     */
+    public void shuffleDeck(SplittableRandom rand){
+        for (int i = cards.length - 1; i > top; i--){
+            int j = top + rand.nextInt(i - top + 1);
+            byte card = cards[i];
+            cards[i] = cards[j];
+            cards[j] = card;
+        }
+    }
+
     /**
      * Gives each player (int, suggested 5-7) a starting hand.
      * @param players (Player[]) the players receiving cards
      * @param numCards (int) the number of cards each player will receive
+     * @param listener (GameEventListener) told about each card dealt
      */
-    public void dealCards( Player[] players, int numCards){
-        System.out.println("Dealing cards...");
+    public void dealCards( Player[] players, int numCards, GameEventListener listener){
         for(int i=0; i<numCards; i++){
             for(Player player:players){
 
-                Card newCard = cards.get(0);
-                if(player.isHuman()){
-                    System.out.println("\t" + player.name + " receives the " +
-                            Rank.rankToString(newCard.getValue()) + " of " + Suit.suitToString(newCard.getSuit()) + ".");
-                }
+                Card newCard = getTopCard(); //take the card off the deck
                 player.addCard(newCard); //give each player a starting hand
-                cards.remove(0); //and remove the card from the deck
+                listener.cardDealt(player, newCard);
             }
         }
     }
 
+    /**
+     * @param pos (int) from 0 (the top card) to size()-1
+     * @return (int) the index of the card at that position in the deck, see Card.getIndex()
+     */
+    public int cardIndexAt(int pos){
+        return cards[top + pos];
+    }
+
+    /**
+     * @return (int) the number of cards left in the deck
+     */
+    public int size(){
+        return cards.length - top;
+    }
+
     public boolean isEmpty(){
-        return cards.isEmpty();
+        return top == cards.length;
     }
 
 
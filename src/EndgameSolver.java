@@ -0,0 +1,180 @@
+/**
+ * Solves the end of a game exactly, when everything is known: both hands and the order of the cards left in the deck.
+ * It is a ground truth for judging the computer players, and MctsStrategy uses it to finish its sampled games
+ * once the deck is nearly empty.
+ *
+ * It solves any gameplay a GameState can capture (see GameState.supports()).
+ * Once the deck is empty every ask succeeds (with the deck gone, each rank left is split between the two hands),
+ * so the player to move takes every pair or book left. Before that, the solver tries every ask with a memoized
+ * depth-first search: positions are keyed by a Zobrist hash of both hands, the cards left in the deck (in order),
+ * the player to move and the rules, and stored in a fixed-size transposition table that always replaces.
+ * A position's value is the number of pairs or books its player to move can still make, which doesn't depend on
+ * the scores so far, so positions that differ only in score share an entry.
+ *
+ * The search grows quickly with the size of the deck: a deck of 6 cards takes about a hundred positions, 14 cards
+ * several thousand.
+ * A solver is not thread safe; use one per thread.
+ */
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+public class EndgameSolver {
+    private static final Rank[] RANKS = Rank.values();
+
+    //Zobrist keys: a card in either hand, a card at some height in the deck, the player to move and the rules
+    private static final long[][] HAND_KEYS = new long[2][52];
+    private static final long[][] DECK_KEYS = new long[52][52];
+    private static final long SECOND_TO_MOVE;
+    private static final long[] MODE_KEYS = new long[GameMode.values().length];
+
+    static {
+        SplittableRandom keys = new SplittableRandom(0x60F15L);
+        for (long[] row : HAND_KEYS){
+            for (int i = 0; i < row.length; i++){
+                row[i] = keys.nextLong();
+            }
+        }
+        for (long[] row : DECK_KEYS){
+            for (int i = 0; i < row.length; i++){
+                row[i] = keys.nextLong();
+            }
+        }
+        SECOND_TO_MOVE = keys.nextLong();
+        for (int i = 0; i < MODE_KEYS.length; i++){
+            MODE_KEYS[i] = keys.nextLong();
+        }
+    }
+
+    private final long[] keys;
+    private final short[] entries; //value in the low byte, best rank's ordinal + 1 above it
+    private final int mask;
+    private long nodes;
+
+    /**
+     * Creates a solver with a transposition table of 2^20 positions.
+     */
+    public EndgameSolver(){
+        this(20);
+    }
+
+    /**
+     * @param tableBits (int) the transposition table holds 2^tableBits positions
+     */
+    public EndgameSolver(int tableBits){
+        keys = new long[1 << tableBits];
+        entries = new short[1 << tableBits];
+        mask = (1 << tableBits) - 1;
+    }
+
+    /**
+     * @param state (GameState)
+     * @return (int) the pairs or books the player to move can still make, if both players play perfectly
+     */
+    public int solve(GameState state){
+        if (state.isGameOver()){
+            return 0;
+        }
+        if (state.getDeckSize() == 0){
+            return remainingPoints(state); //every ask succeeds, so the player to move makes the rest
+        }
+        long key = hash(state);
+        int slot = (int) key & mask;
+        if (keys[slot] == key){
+            return entries[slot] & 0xFF;
+        }
+
+        nodes++;
+        int mover = state.getCurrentPlayer();
+        int remaining = remainingPoints(state);
+        int best = -1;
+        Rank bestRank = null;
+        long hand = state.getHand(mover);
+        while (hand != 0){
+            int r = Long.numberOfTrailingZeros(hand) >> 2;
+            hand &= ~(0xFL << (r * 4)); //try each rank once
+            Rank rank = RANKS[r];
+
+            GameState next = state.apply(rank);
+            int gain = next.getScore(mover) - state.getScore(mover);
+            int later = solve(next);
+            int value = gain + (next.getCurrentPlayer() == mover ? later : remainingPoints(next) - later);
+            if (value > best){
+                best = value;
+                bestRank = rank;
+                if (best == remaining){
+                    break; //can't do better than making everything
+                }
+            }
+        }
+
+        keys[slot] = key;
+        entries[slot] = (short) (best | (bestRank.ordinal() + 1) << 8);
+        return best;
+    }
+
+    /**
+     * @param state (GameState) a state waiting for an ask
+     * @return (Rank) an ask that makes the most pairs or books for the player to move, if both play perfectly
+     */
+    public Rank bestAsk(GameState state){
+        if (state.isGameOver()){
+            throw new IllegalArgumentException("the game is over");
+        }
+        if (state.getDeckSize() == 0){
+            long hand = state.getHand(state.getCurrentPlayer());
+            return RANKS[Long.numberOfTrailingZeros(hand) >> 2]; //any ask succeeds
+        }
+        solve(state); //stores the state last, after everything searched below it
+        return RANKS[(entries[(int) hash(state) & mask] >> 8) - 1];
+    }
+
+    /**
+     * @param state (GameState)
+     * @param player (int) 0 for the first player, 1 for the second
+     * @return (int) the player's score at the end of the game, if both players play perfectly
+     */
+    public int finalScore(GameState state, int player){
+        int toMove = solve(state);
+        if (player != state.getCurrentPlayer()){
+            toMove = remainingPoints(state) - toMove;
+        }
+        return state.getScore(player) + toMove;
+    }
+
+    /**
+     * @param state (GameState)
+     * @return (int) the pairs or books that are yet to be made, by either player
+     */
+    public static int remainingPoints(GameState state){
+        int cards = Long.bitCount(state.getHand(0)) + Long.bitCount(state.getHand(1)) + state.getDeckSize();
+        return cards / state.getGameMode().getRules().getSetSize(); //every card ends up in a pair or book
+    }
+
+    /**
+     * @return (long) the positions searched (not found in the table) since the solver was created or cleared
+     */
+    public long getNodes(){
+        return nodes;
+    }
+
+    public void clear(){
+        Arrays.fill(keys, 0);
+        nodes = 0;
+    }
+
+    private static long hash(GameState state){
+        long key = state.getCurrentPlayer() == 1 ? SECOND_TO_MOVE : 0;
+        key ^= MODE_KEYS[state.getGameMode().ordinal()];
+        for (int player = 0; player < 2; player++){
+            for (long hand = state.getHand(player); hand != 0; hand &= hand - 1){
+                key ^= HAND_KEYS[player][Long.numberOfTrailingZeros(hand)];
+            }
+        }
+        int deckSize = state.getDeckSize();
+        for (int pos = 0; pos < deckSize; pos++){
+            key ^= DECK_KEYS[deckSize - 1 - pos][state.deckCardAt(pos)]; //by height, so drawing leaves the rest alone
+        }
+        return key | 1; //0 marks an empty slot
+    }
+}
@@ -0,0 +1,387 @@
+/**
+ * A file of solved endgames: for every position with at most a given number of cards left (in both hands and the
+ * deck together), the best ask and the pairs or books the player to move will make with perfect play.
+ * It is generated once, offline, with EndgameSolver (java EndgameTablebase pairs|books|singles maxCards file), and read
+ * back by memory-mapping the file, so looking a position up costs a hash and a probe or two and nothing is
+ * loaded onto the heap.
+ *
+ * Suits and the names of the ranks make no difference to how a position plays out, so positions are stored in a
+ * canonical form: the ranks are relabelled in the order they first appear in the deck, then the ranks held only in
+ * hands are sorted by how many each player holds. Only the number of cards of each rank in each hand and the ranks
+ * in the deck (in order) are kept, from the side of the player to move.
+ *
+ * The file is a 32 byte header (magic, version, rules, maxCards, table size, positions, hash scheme), then an
+ * open-addressed table of 64-bit position hashes followed by a table of 16-bit entries (value in the low byte, the canonical label
+ * of the best rank above it). A hash identifies a position, so a lookup could in theory return another position's
+ * entry; with 64-bit hashes and a few million positions the chance is negligible.
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class EndgameTablebase {
+    private static final Rank[] RANKS = Rank.values();
+    private static final int MAGIC = 0x47465442; //"GFTB"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    //how canonicalHash() mixes positions; a file written with another scheme can't be looked up in
+    private static final int HASH_SCHEME = 1;
+
+    private final ByteBuffer table;
+    private final GameMode gameMode;
+    private final int maxCards;
+    private final int slots;
+    private final int positions;
+
+    private EndgameTablebase(ByteBuffer table){
+        this.table = table;
+        if (table.getInt(0) != MAGIC || table.getInt(4) != VERSION){
+            throw new IllegalArgumentException("not an endgame tablebase file");
+        }
+        int scheme = table.getInt(24);
+        if (scheme != HASH_SCHEME){
+            throw new IllegalArgumentException("tablebase file hashed with unknown scheme " + scheme);
+        }
+        gameMode = GameMode.values()[table.getInt(8)];
+        maxCards = table.getInt(12);
+        slots = table.getInt(16);
+        positions = table.getInt(20);
+    }
+
+    /**
+     * Memory-maps a tablebase file for reading. The file can be shared by any number of threads.
+     * @param file (Path) a file written by generate()
+     * @return (EndgameTablebase) the tablebase
+     * @throws IOException if the file cannot be read
+     */
+    public static EndgameTablebase open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+            return new EndgameTablebase(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public GameMode getGameMode(){
+        return gameMode;
+    }
+
+    /**
+     * @return (int) the most cards (in both hands and the deck) a position in the tablebase can have
+     */
+    public int getMaxCards(){
+        return maxCards;
+    }
+
+    /**
+     * @return (int) the number of positions stored
+     */
+    public int getPositions(){
+        return positions;
+    }
+
+    /**
+     * @param state (GameState)
+     * @return (boolean) true if the tablebase can answer for the state
+     */
+    public boolean covers(GameState state){
+        return state.getGameMode() == gameMode && cardsLeft(state) <= maxCards;
+    }
+
+    /**
+     * @param state (GameState)
+     * @return (int) the pairs or books the player to move can still make with perfect play, or -1 if the
+     * tablebase doesn't cover the state
+     */
+    public int value(GameState state){
+        if (!covers(state)){
+            return -1;
+        }
+        if (state.isGameOver()){
+            return 0;
+        }
+        if (state.getDeckSize() == 0){
+            return EndgameSolver.remainingPoints(state); //every ask succeeds
+        }
+        int[] ranks = new int[13];
+        int entry = find(canonicalHash(state, ranks));
+        return entry < 0 ? -1 : entry & 0xFF;
+    }
+
+    /**
+     * @param state (GameState)
+     * @return (Rank) the best ask for the player to move, or null if the tablebase doesn't cover the state
+     * (or the game is over)
+     */
+    public Rank bestAsk(GameState state){
+        if (!covers(state) || state.isGameOver()){
+            return null;
+        }
+        if (state.getDeckSize() == 0){
+            return RANKS[Long.numberOfTrailingZeros(state.getHand(state.getCurrentPlayer())) >> 2];
+        }
+        int[] ranks = new int[13];
+        int entry = find(canonicalHash(state, ranks));
+        return entry < 0 ? null : RANKS[ranks[entry >> 8]];
+    }
+
+    /**
+     * @return (int) the entry stored for the hash, or -1 if there is none
+     */
+    private int find(long hash){
+        int keysAt = HEADER_BYTES;
+        int entriesAt = HEADER_BYTES + slots * 8;
+        for (int slot = (int) hash & (slots - 1); ; slot = (slot + 1) & (slots - 1)){
+            long key = table.getLong(keysAt + slot * 8);
+            if (key == hash){
+                return table.getShort(entriesAt + slot * 2);
+            }
+            if (key == 0){
+                return -1;
+            }
+        }
+    }
+
+    private static int cardsLeft(GameState state){
+        return Long.bitCount(state.getHand(0)) + Long.bitCount(state.getHand(1)) + state.getDeckSize();
+    }
+
+    /**
+     * Hashes the canonical form of a state, from the side of the player to move.
+     * @param state (GameState)
+     * @param ranks (int[]) receives the rank ordinal of each canonical label
+     * @return (long) the hash, never 0
+     */
+    private static long canonicalHash(GameState state, int[] ranks){
+        long mine = state.getHand(state.getCurrentPlayer());
+        long theirs = state.getHand(1 - state.getCurrentPlayer());
+        int[] labels = new int[13];
+        Arrays.fill(labels, -1);
+        int deckSize = state.getDeckSize();
+        long hash = mix(state.getGameMode().ordinal(), deckSize);
+
+        //ranks in the deck, in order of first appearance
+        int count = 0;
+        for (int pos = 0; pos < deckSize; pos++){
+            int r = state.deckCardAt(pos) >> 2;
+            if (labels[r] < 0){
+                labels[r] = count;
+                ranks[count++] = r;
+            }
+            hash = mix(hash, labels[r]);
+        }
+        //then the ranks held only in hands, by how many each player holds (ties are interchangeable)
+        int inDeck = count;
+        for (int r = 0; r < 13; r++){
+            if (labels[r] < 0 && ((mine | theirs) & (0xFL << (r * 4))) != 0){
+                int key = held(mine, theirs, r);
+                int i = count++;
+                while (i > inDeck && held(mine, theirs, ranks[i - 1]) > key){
+                    ranks[i] = ranks[i - 1];
+                    i--;
+                }
+                ranks[i] = r;
+            }
+        }
+
+        hash = mix(hash, count);
+        for (int label = 0; label < count; label++){
+            hash = mix(hash, held(mine, theirs, ranks[label]));
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    /**
+     * Mixes a value into a hash (the SplitMix64 finalizer). Part of the file format: changing it means a new
+     * HASH_SCHEME, or every tablebase already written stops matching.
+     * @param hash (long) the hash so far
+     * @param value (long) the value to add
+     * @return (long) the new hash
+     */
+    private static long mix(long hash, long value){
+        long z = hash + (value + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @return (int) the cards of a rank in each hand, as mine * 4 + theirs
+     */
+    private static int held(long mine, long theirs, int r){
+        return Long.bitCount(mine & (0xFL << (r * 4))) * 4 + Long.bitCount(theirs & (0xFL << (r * 4)));
+    }
+
+    /**
+     * Solves every position with up to maxCards cards left and a card in the deck, and writes them to a file.
+     * @param gameMode (GameMode) the rules
+     * @param maxCards (int) the most cards in both hands and the deck together
+     * @param file (Path) where to write the tablebase
+     * @return (int) the number of positions written
+     * @throws IOException if the file cannot be written
+     */
+    public static int generate(GameMode gameMode, int maxCards, Path file) throws IOException {
+        if (!GameState.supports(gameMode)){
+            throw new IllegalArgumentException(GameMode.modeToString(gameMode) + " endgames can't be solved");
+        }
+        //how the cards of one rank can be split between the player to move, the opponent and the deck:
+        //all four in books; two or four in pairs, where no hand holds two of a rank
+        List<int[]> splits = new ArrayList<>();
+        int setSize = gameMode.getRules().getSetSize();
+        int most = setSize - 1;
+        for (int total = setSize; total <= 4; total += setSize){
+            for (int mine = 0; mine <= most; mine++){
+                for (int theirs = 0; theirs <= most && mine + theirs <= total; theirs++){
+                    splits.add(new int[]{mine, theirs, total - mine - theirs});
+                }
+            }
+        }
+
+        Generator generator = new Generator(gameMode, maxCards, splits);
+        generator.chooseSplits(0, 0, 0);
+        Map<Long, Short> solved = generator.solved;
+
+        int slots = Integer.highestOneBit(Math.max(solved.size(), 1) * 2) * 2; //at most half full
+        long size = HEADER_BYTES + slots * 10L;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)){
+            MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            out.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, gameMode.ordinal()).putInt(12, maxCards)
+                    .putInt(16, slots).putInt(20, solved.size()).putInt(24, HASH_SCHEME);
+            for (Map.Entry<Long, Short> position : solved.entrySet()){
+                long hash = position.getKey();
+                int slot = (int) hash & (slots - 1);
+                while (out.getLong(HEADER_BYTES + slot * 8) != 0){
+                    slot = (slot + 1) & (slots - 1);
+                }
+                out.putLong(HEADER_BYTES + slot * 8, hash);
+                out.putShort(HEADER_BYTES + slots * 8 + slot * 2, position.getValue());
+            }
+            out.force();
+        }
+        return solved.size();
+    }
+
+    /**
+     * Walks through every position once: a split of each rank's cards, then every order of the deck.
+     */
+    private static final class Generator {
+        final GameMode gameMode;
+        final int maxCards;
+        final List<int[]> splits;
+        final int[] chosen = new int[13]; //the split of each rank
+        final int[] deckLeft = new int[13]; //cards of each rank still to place in the deck
+        final int[] deck = new int[52];
+        final int[] ranks = new int[13];
+        final EndgameSolver solver = new EndgameSolver(22);
+        final Map<Long, Short> solved = new HashMap<>();
+        long mine;
+        long theirs;
+
+        Generator(GameMode gameMode, int maxCards, List<int[]> splits){
+            this.gameMode = gameMode;
+            this.maxCards = maxCards;
+            this.splits = splits;
+        }
+
+        /**
+         * Chooses the split of rank number 'rank', using splits from 'first' on so each combination comes up once.
+         */
+        void chooseSplits(int rank, int first, int cards){
+            if (rank > 0){
+                placeHands(rank);
+            }
+            if (rank == 13){
+                return;
+            }
+            for (int i = first; i < splits.size(); i++){
+                int[] split = splits.get(i);
+                int total = split[0] + split[1] + split[2];
+                if (cards + total <= maxCards){
+                    chosen[rank] = i;
+                    chooseSplits(rank + 1, i, cards + total);
+                }
+            }
+        }
+
+        /**
+         * Deals the chosen splits of the first 'count' ranks into the two hands, then orders the deck.
+         */
+        void placeHands(int count){
+            mine = 0;
+            theirs = 0;
+            int deckSize = 0;
+            for (int r = 0; r < count; r++){
+                int[] split = splits.get(chosen[r]);
+                int suit = 0;
+                for (int i = 0; i < split[0]; i++){
+                    mine |= 1L << (r * 4 + suit++);
+                }
+                for (int i = 0; i < split[1]; i++){
+                    theirs |= 1L << (r * 4 + suit++);
+                }
+                deckLeft[r] = split[2];
+                deckSize += split[2];
+            }
+            if (mine != 0 && deckSize > 0){
+                orderDeck(0, deckSize, count);
+            }
+        }
+
+        /**
+         * Tries every order of the deck's cards, by rank, and solves each position not seen before.
+         */
+        void orderDeck(int pos, int deckSize, int count){
+            if (pos == deckSize){
+                solve(deckSize);
+                return;
+            }
+            for (int r = 0; r < count; r++){
+                if (deckLeft[r] > 0){
+                    deckLeft[r]--;
+                    deck[pos] = r * 4 + 3 - deckLeft[r]; //the highest suits of each rank are in the deck
+                    orderDeck(pos + 1, deckSize, count);
+                    deckLeft[r]++;
+                }
+            }
+        }
+
+        void solve(int deckSize){
+            GameState state = GameState.of(gameMode, mine, theirs, 0, 0, Arrays.copyOf(deck, deckSize), 0);
+            long hash = canonicalHash(state, ranks);
+            if (solved.containsKey(hash)){
+                return;
+            }
+            int value = solver.solve(state);
+            Rank best = solver.bestAsk(state);
+            int label = 0;
+            while (ranks[label] != best.ordinal()){
+                label++;
+            }
+            solved.put(hash, (short) (value | label << 8));
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3 || GoFish.parseGameMode(args[0]) == null || !GameState.supports(GoFish.parseGameMode(args[0]))){
+            System.out.println("usage: java EndgameTablebase pairs|books|singles maxCards file");
+            return;
+        }
+        GameMode gameMode = GoFish.parseGameMode(args[0]);
+        int maxCards = Integer.parseInt(args[1]);
+        Path file = Paths.get(args[2]);
+
+        long startTime = System.nanoTime();
+        int positions = generate(gameMode, maxCards, file);
+        System.out.printf("%s: %d positions with up to %d cards in %.1f s, %d bytes%n", GameMode.modeToString(gameMode),
+                positions, maxCards, (System.nanoTime() - startTime) / 1e9, file.toFile().length());
+    }
+}
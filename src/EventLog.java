@@ -0,0 +1,185 @@
+/**
+ * An append-only binary record of everything that happens in one game, two bytes per event.
+ *
+ * Each event is a 16 bit word: the event type in the top 3 bits, the player (0 or 1) in the next bit,
+ * and a 6 bit card index (see Card.getIndex()) or a 4 bit rank ordinal in the low bits.
+ * Together with the game's seed, a log is enough for GameReplay to rebuild the game at any point.
+ *
+ * Attach a log to a game as its GameEventListener. It clears itself when a new game starts,
+ * so one log can be reused for game after game with no allocation once it has grown.
+ */
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+public class EventLog implements GameEventListener {
+    //event types
+    public static final int DEAL = 0;      //player was dealt card
+    public static final int ASK = 1;       //player asked their opponent for rank
+    public static final int HAND_OVER = 2; //player was handed card by their opponent
+    public static final int PAIR = 3;      //player made a pair of rank
+    public static final int BOOK = 4;      //player made a book of rank
+    public static final int FISH = 5;      //player drew card from the deck
+    public static final int NEXT_TURN = 6; //the turn passed to player
+
+    private byte[] events = new byte[256];
+    private int size; //number of events, not bytes
+
+    private Player[] players; //the game being recorded, to turn Players into 0 or 1
+
+    private int indexOf(Player player){
+        return player == players[0] ? 0 : 1;
+    }
+
+    /**
+     * Starts recording a new game, clearing anything recorded before.
+     */
+    public void gameStarted(GameMode gameMode, Player[] players){
+        this.players = players;
+        clear();
+    }
+
+    public void cardDealt(Player player, Card card){
+        append(DEAL, indexOf(player), card.getIndex());
+    }
+
+    public void startingPair(Player player, Card card1, Card card2){
+        append(PAIR, indexOf(player), card1.getValue().ordinal());
+    }
+
+    public void startingBook(Player player, Rank rank){
+        append(BOOK, indexOf(player), rank.ordinal());
+    }
+
+    public void asked(Player current, Player opponent, Rank rank){
+        append(ASK, indexOf(current), rank.ordinal());
+    }
+
+    public void handedOver(Player current, Player opponent, Rank rank, long cards){
+        int player = indexOf(current);
+        for(long rest = cards; rest != 0; rest &= rest - 1){
+            append(HAND_OVER, player, Long.numberOfTrailingZeros(rest));
+        }
+    }
+
+    public void cardDrawn(Player player, Card card){
+        append(FISH, indexOf(player), card.getIndex());
+    }
+
+    public void pairMade(Player player, Rank rank){
+        append(PAIR, indexOf(player), rank.ordinal());
+    }
+
+    public void bookMade(Player player, Rank rank){
+        append(BOOK, indexOf(player), rank.ordinal());
+    }
+
+    public void turnEnded(Player player){
+        append(NEXT_TURN, 1 - indexOf(player), 0);
+    }
+
+    private void append(int type, int player, int value){
+        if (2 * size == events.length){
+            events = Arrays.copyOf(events, events.length * 2);
+        }
+        int event = type << 13 | player << 12 | value;
+        events[2 * size] = (byte) (event >>> 8);
+        events[2 * size + 1] = (byte) event;
+        size++;
+    }
+
+    /**
+     * Empties the log so it can record another game.
+     */
+    public void clear(){
+        size = 0;
+    }
+
+    /**
+     * @return (int) the number of events recorded
+     */
+    public int size(){
+        return size;
+    }
+
+    /**
+     * @param i (int) which event, from 0 to size()-1
+     * @return (int) the event's 16 bit word
+     */
+    public int get(int i){
+        return (events[2 * i] & 0xFF) << 8 | (events[2 * i + 1] & 0xFF);
+    }
+
+    public static int typeOf(int event){
+        return event >>> 13;
+    }
+
+    public static int playerOf(int event){
+        return (event >>> 12) & 1;
+    }
+
+    public static int cardOf(int event){
+        return event & 0x3F;
+    }
+
+    public static Rank rankOf(int event){
+        return Rank.values()[event & 0xF];
+    }
+
+    /**
+     * Writes the number of events followed by the events themselves.
+     * @param out (OutputStream) where to write the log
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(size);
+        data.write(events, 0, 2 * size);
+        data.flush();
+    }
+
+    /**
+     * Reads a log written by writeTo().
+     * @param in (InputStream) where to read the log from
+     * @return (EventLog) the log that was read
+     * @throws IOException if the stream cannot be read or ends early
+     */
+    public static EventLog readFrom(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        EventLog log = new EventLog();
+        log.size = data.readInt();
+        log.events = new byte[Math.max(2 * log.size, 2)];
+        data.readFully(log.events, 0, 2 * log.size);
+        return log;
+    }
+
+    /**
+     * @param event (int) an event's 16 bit word
+     * @return (String) the event as readable text, for debugging
+     */
+    public static String eventToString(int event){
+        int player = playerOf(event);
+        switch (typeOf(event)) {
+            case DEAL:
+                return "player " + player + " dealt " + Card.fromIndex(cardOf(event));
+            case ASK:
+                return "player " + player + " asks for " + Rank.rankToString(rankOf(event)) + "s";
+            case HAND_OVER:
+                return "player " + player + " handed " + Card.fromIndex(cardOf(event));
+            case PAIR:
+                return "player " + player + " pairs " + Rank.rankToString(rankOf(event)) + "s";
+            case BOOK:
+                return "player " + player + " books " + Rank.rankToString(rankOf(event)) + "s";
+            case FISH:
+                return "player " + player + " draws " + Card.fromIndex(cardOf(event));
+            case NEXT_TURN:
+                return "player " + player + "'s turn";
+            default:
+                return "unknown event " + event;
+        }
+    }
+}
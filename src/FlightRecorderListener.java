@@ -0,0 +1,321 @@
+/**
+ * Reports games to Java Flight Recorder, as events in the "Go Fish" category:
+ *
+ *   gofish.Game    a whole game: mode, turns and both scores
+ *   gofish.Deal    dealing and checking the starting hands, with the pairs or books found
+ *   gofish.Turn    one player's turn, from their first ask until play passes on (takeTurn)
+ *   gofish.Ask     one ask and whether the opponent had the rank (doYouHaveAny)
+ *   gofish.Fish    a draw from the deck, or fishing in an empty one (goFish)
+ *   gofish.Match   a pair or book made
+ *
+ * Start a recording with e.g. java -XX:StartFlightRecording=filename=gofish.jfr,settings=profile ...
+ * or with jcmd on a running server, and open it in JDK Mission Control.
+ *
+ * The events don't record stack traces: they always come from the same few places in GoFish.
+ *
+ * While none of these events is being recorded each callback only reads a flag: no event objects are made,
+ * so the listener can be left attached to live servers and long simulations. Like the games it watches,
+ * a listener is not thread safe: give each thread (or each game played at the same time) its own.
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+public class FlightRecorderListener implements GameEventListener {
+    private static final EventType GAME = EventType.getEventType(GameEvent.class);
+    private static final EventType DEAL = EventType.getEventType(DealEvent.class);
+    private static final EventType TURN = EventType.getEventType(TurnEvent.class);
+    private static final EventType ASK = EventType.getEventType(AskEvent.class);
+    private static final EventType FISH = EventType.getEventType(FishEvent.class);
+    private static final EventType MATCH = EventType.getEventType(MatchEvent.class);
+
+    //events in progress, or null when they aren't being recorded
+    private GameEvent game;
+    private DealEvent deal;
+    private TurnEvent turn;
+    private AskEvent ask;
+
+    private GameMode gameMode;
+    private int turns;
+
+    @Name("gofish.Game")
+    @Label("Game")
+    @Category("Go Fish")
+    @StackTrace(false)
+    @Description("A whole game, from the deal until the deck and both hands are empty")
+    static final class GameEvent extends Event {
+        @Label("Mode")
+        String mode;
+        @Label("First Player")
+        String player1;
+        @Label("Second Player")
+        String player2;
+        @Label("Turns")
+        int turns;
+        @Label("First Player's Score")
+        int score1;
+        @Label("Second Player's Score")
+        int score2;
+        @Label("Winner")
+        @Description("The winning player's name, or null for a draw")
+        String winner;
+    }
+
+    @Name("gofish.Deal")
+    @Label("Deal")
+    @Category("Go Fish")
+    @StackTrace(false)
+    @Description("Dealing the starting hands and checking them for pairs or books")
+    static final class DealEvent extends Event {
+        @Label("Mode")
+        String mode;
+        @Label("Pairs")
+        int pairs;
+        @Label("Books")
+        int books;
+    }
+
+    @Name("gofish.Turn")
+    @Label("Turn")
+    @Category("Go Fish")
+    @StackTrace(false)
+    @Description("One player's turn, including the asks a successful ask earns, until play passes to the opponent")
+    static final class TurnEvent extends Event {
+        @Label("Player")
+        String player;
+        @Label("Turn")
+        @Description("The turn's number in the game, from 1")
+        int turn;
+        @Label("Asks")
+        int asks;
+        @Label("Successful Asks")
+        int successfulAsks;
+        @Label("Cards Received")
+        @Description("Cards handed over by the opponent")
+        int cardsReceived;
+        @Label("Fished")
+        @Description("Whether the turn ended by drawing from the deck")
+        boolean fished;
+        @Label("Hand Size")
+        @Description("Cards in the player's hand when the turn ended")
+        int handSize;
+    }
+
+    @Name("gofish.Ask")
+    @Label("Ask")
+    @Category("Go Fish")
+    @StackTrace(false)
+    @Description("Asking the opponent for a rank")
+    static final class AskEvent extends Event {
+        @Label("Player")
+        String player;
+        @Label("Rank")
+        String rank;
+        @Label("Success")
+        @Description("Whether the opponent had any of the rank")
+        boolean success;
+        @Label("Cards")
+        @Description("Cards handed over")
+        int cards;
+    }
+
+    @Name("gofish.Fish")
+    @Label("Fish")
+    @Category("Go Fish")
+    @StackTrace(false)
+    @Description("Drawing a card from the deck")
+    static final class FishEvent extends Event {
+        @Label("Player")
+        String player;
+        @Label("Card")
+        @Description("The card drawn, or null if the deck was empty")
+        String card;
+    }
+
+    @Name("gofish.Match")
+    @Label("Pair or Book")
+    @Category("Go Fish")
+    @StackTrace(false)
+    @Description("A pair or book made, in a starting hand or during a turn")
+    static final class MatchEvent extends Event {
+        @Label("Player")
+        String player;
+        @Label("Rank")
+        String rank;
+        @Label("Book")
+        @Description("True for a book, false for a pair")
+        boolean book;
+        @Label("Starting Hand")
+        boolean starting;
+    }
+
+    public void gameStarted(GameMode gameMode, Player[] players){
+        this.gameMode = gameMode;
+        turns = 0;
+        turn = null;
+        ask = null;
+        game = GAME.isEnabled() ? new GameEvent() : null;
+        if (game != null){
+            game.begin();
+        }
+        deal = DEAL.isEnabled() ? new DealEvent() : null;
+        if (deal != null){
+            deal.begin();
+        }
+    }
+
+    public void gameResumed(GameMode gameMode, Player[] players){
+        gameStarted(gameMode, players);
+        deal = null; //nothing is dealt
+    }
+
+    public void startingPair(Player player, Card card1, Card card2){
+        if (deal != null){
+            deal.pairs++;
+        }
+        match(player, card1.getValue(), false, true);
+    }
+
+    public void startingBook(Player player, Rank rank){
+        if (deal != null){
+            deal.books++;
+        }
+        match(player, rank, true, true);
+    }
+
+    public void handsChecked(Player[] players){
+        if (deal != null){
+            deal.end();
+            if (deal.shouldCommit()){
+                deal.mode = GameMode.modeToString(gameMode);
+                deal.commit();
+            }
+            deal = null;
+        }
+    }
+
+    public void turnStarted(Player player){
+        if (turn == null && TURN.isEnabled()){ //not again after a successful ask: that's the same turn
+            turn = new TurnEvent();
+            turn.begin();
+        }
+    }
+
+    public void asked(Player current, Player opponent, Rank rank){
+        if (turn != null){
+            turn.asks++;
+        }
+        ask = ASK.isEnabled() ? new AskEvent() : null;
+        if (ask != null){
+            ask.begin();
+        }
+    }
+
+    public void handedOver(Player current, Player opponent, Rank rank, long cards){
+        if (turn != null){
+            turn.successfulAsks++;
+            turn.cardsReceived += Long.bitCount(cards);
+        }
+        endAsk(current, rank, Long.bitCount(cards));
+    }
+
+    public void goFish(Player current, Player opponent, Rank rank){
+        endAsk(current, rank, 0);
+    }
+
+    private void endAsk(Player current, Rank rank, int cards){
+        if (ask != null){
+            ask.end();
+            if (ask.shouldCommit()){
+                ask.player = current.name;
+                ask.rank = Rank.rankToString(rank);
+                ask.success = cards > 0;
+                ask.cards = cards;
+                ask.commit();
+            }
+            ask = null;
+        }
+    }
+
+    public void cardDrawn(Player player, Card card){
+        if (turn != null){
+            turn.fished = true;
+        }
+        fish(player, card);
+    }
+
+    public void deckEmpty(Player player){
+        if (turn != null){
+            turn.fished = true;
+        }
+        fish(player, null);
+    }
+
+    private void fish(Player player, Card card){
+        if (FISH.isEnabled()){
+            FishEvent event = new FishEvent();
+            if (event.shouldCommit()){
+                event.player = player.name;
+                event.card = card == null ? null : card.toString();
+                event.commit();
+            }
+        }
+    }
+
+    public void pairMade(Player player, Rank rank){
+        match(player, rank, false, false);
+    }
+
+    public void bookMade(Player player, Rank rank){
+        match(player, rank, true, false);
+    }
+
+    private void match(Player player, Rank rank, boolean book, boolean starting){
+        if (MATCH.isEnabled()){
+            MatchEvent event = new MatchEvent();
+            if (event.shouldCommit()){
+                event.player = player.name;
+                event.rank = Rank.rankToString(rank);
+                event.book = book;
+                event.starting = starting;
+                event.commit();
+            }
+        }
+    }
+
+    public void turnEnded(Player player){
+        turns++;
+        if (turn != null){
+            turn.end();
+            if (turn.shouldCommit()){
+                turn.player = player.name;
+                turn.turn = turns;
+                turn.handSize = player.getHandSize();
+                turn.commit();
+            }
+            turn = null;
+        }
+    }
+
+    public void gameOver(Player[] players, Player winner){
+        if (game != null){
+            game.end();
+            if (game.shouldCommit()){
+                game.mode = GameMode.modeToString(gameMode);
+                game.player1 = players[0].name;
+                game.player2 = players[1].name;
+                game.turns = turns;
+                game.score1 = gameMode.getRules().getScore(players[0]);
+                game.score2 = gameMode.getRules().getScore(players[1]);
+                game.winner = winner == null ? null : winner.name;
+                game.commit();
+            }
+            game = null;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+/**
+ * A saved game in progress, taken at the start of an ask with GoFish.checkpoint() and played on with GoFish.restore().
+ * It holds everything the game needs to carry on exactly as it would have: the rules, the turn, both hands and
+ * scores, the cards left in the deck in order, and a seed for the computer players' choices from here on.
+ * The players themselves (names, strategies, which is human) belong to whoever hosts the game and are supplied
+ * again on restore; a strategy that remembers the game, like CardCountingStrategy, starts again from what it sees.
+ *
+ * A checkpoint is a fixed 104 byte record, so a server can keep many idle games in one file, each at its own slot:
+ *
+ *   0  int    magic "GFCP"
+ *   4  byte   version
+ *   5  byte   rules (GameMode ordinal)
+ *   6  short  turn
+ *   8  long   the game's seed
+ *  16  long   the seed the game carries on with
+ *  24  long   first player's hand, a mask of card indexes (see Card.getIndex())
+ *  32  long   second player's hand
+ *  40  byte   first player's pairs, 41 books, 42 second player's pairs, 43 books
+ *  44  byte   cards left in the deck
+ *  45  byte[] the cards left, top card first (unused bytes are 0)
+ */
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+public final class GameCheckpoint {
+    public static final int RECORD_BYTES = 104;
+    private static final int MAGIC = 0x47464350; //"GFCP"
+    private static final int VERSION = 1;
+    private static final int DECK_AT = 45;
+    private static final GameMode[] MODES = GameMode.values();
+
+    private final GameMode gameMode;
+    private final int turn;
+    private final long seed;
+    private final long resumeSeed;
+    private final long hand1;
+    private final long hand2;
+    private final int pairs1;
+    private final int books1;
+    private final int pairs2;
+    private final int books2;
+    private final byte[] deck; //top card first
+
+    GameCheckpoint(GameMode gameMode, int turn, long seed, long resumeSeed, Player[] players, Deck deck){
+        this.gameMode = gameMode;
+        this.turn = turn;
+        this.seed = seed;
+        this.resumeSeed = resumeSeed;
+        hand1 = players[0].getHandMask();
+        hand2 = players[1].getHandMask();
+        pairs1 = players[0].getNumPairs();
+        books1 = players[0].getNumBooks();
+        pairs2 = players[1].getNumPairs();
+        books2 = players[1].getNumBooks();
+        this.deck = new byte[deck.size()];
+        for (int pos = 0; pos < this.deck.length; pos++){
+            this.deck[pos] = (byte) deck.cardIndexAt(pos);
+        }
+    }
+
+    private GameCheckpoint(ByteBuffer record){
+        int at = record.position();
+        if (record.getInt(at) != MAGIC || record.get(at + 4) != VERSION){
+            throw new IllegalArgumentException("not a game checkpoint");
+        }
+        gameMode = MODES[record.get(at + 5)];
+        turn = record.getShort(at + 6);
+        seed = record.getLong(at + 8);
+        resumeSeed = record.getLong(at + 16);
+        hand1 = record.getLong(at + 24);
+        hand2 = record.getLong(at + 32);
+        pairs1 = record.get(at + 40);
+        books1 = record.get(at + 41);
+        pairs2 = record.get(at + 42);
+        books2 = record.get(at + 43);
+        deck = new byte[record.get(at + 44)];
+        for (int pos = 0; pos < deck.length; pos++){
+            deck[pos] = record.get(at + DECK_AT + pos);
+        }
+        record.position(at + RECORD_BYTES);
+    }
+
+    /**
+     * Reads a checkpoint from a buffer, moving its position past the record.
+     * @param record (ByteBuffer) holding at least RECORD_BYTES from its position
+     * @return (GameCheckpoint) the checkpoint
+     * @throws IllegalArgumentException if the bytes aren't a checkpoint
+     */
+    public static GameCheckpoint readFrom(ByteBuffer record){
+        return new GameCheckpoint(record);
+    }
+
+    /**
+     * Reads the next checkpoint from a channel, e.g. a file or socket.
+     * @param channel (ReadableByteChannel)
+     * @return (GameCheckpoint) the checkpoint
+     * @throws IOException if the channel can't be read or ends before the record does
+     */
+    public static GameCheckpoint readFrom(ReadableByteChannel channel) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+        while (record.hasRemaining()){
+            if (channel.read(record) < 0){
+                throw new EOFException("checkpoint cut short");
+            }
+        }
+        record.flip();
+        return new GameCheckpoint(record);
+    }
+
+    /**
+     * Reads a checkpoint from a slot of a file, without moving the channel's position.
+     * @param channel (FileChannel)
+     * @param position (long) where the record starts, e.g. slot * RECORD_BYTES
+     * @return (GameCheckpoint) the checkpoint
+     * @throws IOException if the file can't be read or ends before the record does
+     */
+    public static GameCheckpoint readFrom(FileChannel channel, long position) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+        while (record.hasRemaining()){
+            if (channel.read(record, position + record.position()) < 0){
+                throw new EOFException("checkpoint cut short");
+            }
+        }
+        record.flip();
+        return new GameCheckpoint(record);
+    }
+
+    /**
+     * Writes the checkpoint into a buffer, moving its position past the record.
+     * @param record (ByteBuffer) with at least RECORD_BYTES remaining
+     */
+    public void writeTo(ByteBuffer record){
+        int at = record.position();
+        record.putInt(at, MAGIC);
+        record.put(at + 4, (byte) VERSION);
+        record.put(at + 5, (byte) gameMode.ordinal());
+        record.putShort(at + 6, (short) turn);
+        record.putLong(at + 8, seed);
+        record.putLong(at + 16, resumeSeed);
+        record.putLong(at + 24, hand1);
+        record.putLong(at + 32, hand2);
+        record.put(at + 40, (byte) pairs1);
+        record.put(at + 41, (byte) books1);
+        record.put(at + 42, (byte) pairs2);
+        record.put(at + 43, (byte) books2);
+        record.put(at + 44, (byte) deck.length);
+        for (int pos = 0; pos < 52; pos++){
+            record.put(at + DECK_AT + pos, pos < deck.length ? deck[pos] : 0);
+        }
+        for (int i = DECK_AT + 52; i < RECORD_BYTES; i++){
+            record.put(at + i, (byte) 0);
+        }
+        record.position(at + RECORD_BYTES);
+    }
+
+    /**
+     * @param channel (WritableByteChannel) e.g. a file or socket
+     * @throws IOException if the channel can't be written
+     */
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        ByteBuffer record = toBuffer();
+        while (record.hasRemaining()){
+            channel.write(record);
+        }
+    }
+
+    /**
+     * Writes the checkpoint into a slot of a file, without moving the channel's position.
+     * @param channel (FileChannel)
+     * @param position (long) where the record starts, e.g. slot * RECORD_BYTES
+     * @throws IOException if the file can't be written
+     */
+    public void writeTo(FileChannel channel, long position) throws IOException {
+        ByteBuffer record = toBuffer();
+        while (record.hasRemaining()){
+            channel.write(record, position + record.position());
+        }
+    }
+
+    private ByteBuffer toBuffer(){
+        ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+        writeTo(record);
+        record.flip();
+        return record;
+    }
+
+    /**
+     * Puts the hands and scores back into the players.
+     */
+    void restorePlayers(Player[] players){
+        players[0].setHand(hand1);
+        players[1].setHand(hand2);
+        players[0].setScores(pairs1, books1);
+        players[1].setScores(pairs2, books2);
+    }
+
+    /**
+     * Puts the cards left back into a deck.
+     */
+    void restoreDeck(Deck deck){
+        int[] cards = new int[this.deck.length];
+        for (int pos = 0; pos < cards.length; pos++){
+            cards[pos] = this.deck[pos];
+        }
+        deck.setCards(cards, cards.length);
+    }
+
+    public GameMode getGameMode(){
+        return gameMode;
+    }
+
+    /**
+     * @return (int) the number of turns taken so far; the first player moves next if it's even
+     */
+    public int getTurn(){
+        return turn;
+    }
+
+    /**
+     * @return (long) the seed the game was started with
+     */
+    public long getSeed(){
+        return seed;
+    }
+
+    /**
+     * @return (long) the seed of the computer players' choices from the checkpoint on
+     */
+    public long getResumeSeed(){
+        return resumeSeed;
+    }
+
+    /**
+     * @param player (int) 0 for the first player, 1 for the second
+     * @return (long) a mask of the card indexes in the player's hand
+     */
+    public long getHand(int player){
+        return player == 0 ? hand1 : hand2;
+    }
+
+    /**
+     * @return (int) the number of cards left in the deck
+     */
+    public int getDeckSize(){
+        return deck.length;
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * Receives everything that happens in a game of Go Fish, as it happens.
+ * GoFish and Deck call a listener instead of printing, so narration, logging and metrics only cost
+ * anything when a listener that wants them is attached. Every method does nothing by default.
+ *
+ * Cards handed over are passed as a mask of card indexes (see Card.getIndex()), like Player.removeRank returns.
+ */
+public interface GameEventListener {
+
+    /**
+     * Called before the starting hands are dealt.
+     * @param gameMode (GameMode) the rules being played
+     * @param players (Player[]) the two players, in turn order
+     */
+    default void gameStarted(GameMode gameMode, Player[] players){
+    }
+
+    /**
+     * Called when a saved game is restored (see GoFish.restore()), instead of gameStarted and the deal:
+     * the players already hold their saved hands and scores, and the next event is the current player's ask.
+     * By default the listener treats it as the start of a game, so it learns the rules and the players.
+     * @param gameMode (GameMode) the rules being played
+     * @param players (Player[]) the two players, in turn order
+     */
+    default void gameResumed(GameMode gameMode, Player[] players){
+        gameStarted(gameMode, players);
+    }
+
+    default void cardDealt(Player player, Card card){
+    }
+
+    /**
+     * Called once the starting hands are dealt, before they are checked for pairs or books.
+     */
+    default void handsDealt(Player[] players){
+    }
+
+    /**
+     * A pair found in a starting hand.
+     */
+    default void startingPair(Player player, Card card1, Card card2){
+    }
+
+    /**
+     * A book found in a starting hand.
+     */
+    default void startingBook(Player player, Rank rank){
+    }
+
+    /**
+     * Called once the starting hands have been checked, before the first turn.
+     */
+    default void handsChecked(Player[] players){
+    }
+
+    /**
+     * Called at the start of each turn, and again each time a successful ask lets the player go again.
+     */
+    default void turnStarted(Player player){
+    }
+
+    /**
+     * The player has no cards to ask with, so they go straight to fishing.
+     */
+    default void handEmpty(Player player){
+    }
+
+    /**
+     * The current player asks for a rank, before the opponent hands anything over.
+     */
+    default void asked(Player current, Player opponent, Rank rank){
+    }
+
+    /**
+     * The opponent had the rank asked for. Called after the cards are in the current player's hand
+     * (books) or set aside (pairs), but before any pair or book they make is reported.
+     * @param cards (long) a mask of the cards handed over
+     */
+    default void handedOver(Player current, Player opponent, Rank rank, long cards){
+    }
+
+    /**
+     * The opponent had none of the rank asked for.
+     */
+    default void goFish(Player current, Player opponent, Rank rank){
+    }
+
+    default void cardDrawn(Player player, Card card){
+    }
+
+    /**
+     * The player had to go fish, but there were no cards left.
+     */
+    default void deckEmpty(Player player){
+    }
+
+    /**
+     * A pair made during a turn, from an ask or from the card drawn.
+     */
+    default void pairMade(Player player, Rank rank){
+    }
+
+    /**
+     * A book made during a turn, from an ask or from the card drawn.
+     */
+    default void bookMade(Player player, Rank rank){
+    }
+
+    /**
+     * Called when the player's turn passes to their opponent.
+     */
+    default void turnEnded(Player player){
+    }
+
+    /**
+     * Called once the deck and both hands are empty.
+     * @param winner (Player) the winning player, or null for a draw
+     */
+    default void gameOver(Player[] players, Player winner){
+    }
+}
@@ -1,12 +1,25 @@
 /**
- *
+ * The variants of Go Fish that can be played, each with its Rules:
+ * PAIRS (pairs, one card handed over per ask), BOOKS (books of 4, every card of the rank handed over),
+ * SINGLES (books of 4, but an ask only ever gets a single card) and THREES (books of 3).
  */
 public enum GameMode {
-    PAIRS,
-    BOOKS;
+    PAIRS(new PairsRules()),
+    BOOKS(new BookRules(4, 3)),
+    SINGLES(new BookRules(4, 1)),
+    THREES(new BookRules(3, 2));
 
-    private GameMode(){
+    private final Rules rules;
 
+    private GameMode(Rules rules){
+        this.rules = rules;
+    }
+
+    /**
+     * @return (Rules) how this variant plays out
+     */
+    public Rules getRules(){
+        return rules;
     }
 
     public static String modeToString(GameMode mode){
@@ -16,6 +29,12 @@ public enum GameMode {
         else if(mode.equals(BOOKS)){
             return "Books";
         }
+        else if(mode.equals(SINGLES)){
+            return "Singles";
+        }
+        else if(mode.equals(THREES)){
+            return "Threes";
+        }
         return null;
     }
 
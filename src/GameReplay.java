@@ -0,0 +1,120 @@
+/**
+ * Rebuilds a headless game from its seed and its EventLog.
+ *
+ * The seed reproduces the shuffled deck, so the replay knows which cards are still in the deck,
+ * and every DEAL or FISH event is checked against it to catch a log that doesn't belong to the seed.
+ * The other events are applied to two fresh Players, so the hands and scores can be inspected after any event.
+ */
+
+import java.util.SplittableRandom;
+
+public class GameReplay {
+    private final GameMode gameMode;
+    private final EventLog log;
+    private final Deck deck;
+    private final Player[] players;
+    private int position; //events applied so far
+    private int turn;
+
+    /**
+     * @param gameMode (GameMode) the rules the game was played by
+     * @param seed (long) the seed the game was simulated with
+     * @param log (EventLog) the game's events
+     */
+    public GameReplay(GameMode gameMode, long seed, EventLog log){
+        this.gameMode = gameMode;
+        this.log = log;
+        this.deck = new Deck();
+        deck.shuffleDeck(new SplittableRandom(seed)); //the shuffle is the first use of the game's generator
+        this.players = new Player[]{new Player(false, "Player 1"), new Player(false, "Player 2")};
+    }
+
+    /**
+     * Applies events until the given number of events have been replayed.
+     * @param numEvents (int) how far into the log to replay, up to log.size()
+     * @throws IllegalStateException if the log does not match the deck shuffled from the seed
+     */
+    public void replayTo(int numEvents){
+        while (position < numEvents){
+            apply(log.get(position));
+            position++;
+        }
+    }
+
+    /**
+     * Replays the whole log.
+     */
+    public void replayAll(){
+        replayTo(log.size());
+    }
+
+    private void apply(int event){
+        Player player = players[EventLog.playerOf(event)];
+        switch (EventLog.typeOf(event)) {
+            case EventLog.DEAL:
+            case EventLog.FISH:
+                Card card = deck.getTopCard();
+                if (card.getIndex() != EventLog.cardOf(event)){
+                    throw new IllegalStateException("Event " + position + " draws " + Card.fromIndex(EventLog.cardOf(event))
+                            + " but the deck has " + card);
+                }
+                player.addCard(card);
+                break;
+            case EventLog.HAND_OVER:
+                Player opponent = players[1 - EventLog.playerOf(event)];
+                if (!opponent.removeCard(EventLog.cardOf(event))){
+                    throw new IllegalStateException("Event " + position + " hands over a card the opponent does not hold");
+                }
+                player.addCards(1L << EventLog.cardOf(event));
+                break;
+            case EventLog.PAIR:
+                player.removeRank(EventLog.rankOf(event), 2);
+                player.addPair();
+                break;
+            case EventLog.BOOK:
+                player.removeRank(EventLog.rankOf(event), gameMode.getRules().getSetSize());
+                player.addBook();
+                break;
+            case EventLog.NEXT_TURN:
+                turn++;
+                break;
+            default: //ASK changes nothing by itself
+                break;
+        }
+    }
+
+    public GameMode getGameMode(){
+        return gameMode;
+    }
+
+    /**
+     * @param player (int) 0 for the first player, 1 for the second
+     * @return (Player) the player's hand and score at the current point of the replay
+     */
+    public Player getPlayer(int player){
+        return players[player];
+    }
+
+    /**
+     * @param player (int) 0 for the first player, 1 for the second
+     * @return (int) the player's pairs in the pairs gameplay, or books in the books gameplay
+     */
+    public int getScore(int player){
+        return gameMode.getRules().getScore(players[player]);
+    }
+
+    public Deck getDeck(){
+        return deck;
+    }
+
+    public int getTurn(){
+        return turn;
+    }
+
+    /**
+     * @return (int) the number of events replayed so far
+     */
+    public int getPosition(){
+        return position;
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * The outcome of a single headless game of Go Fish.
+ * Scores are pairs in the pairs gameplay and books in the books gameplay.
+ */
+public class GameResult {
+    private final GameMode gameMode;
+    private final long seed;
+    private final int score1;
+    private final int score2;
+    private final int turns;
+    private final int longestStreak;
+
+    /**
+     * A result whose longest streak isn't known, e.g. one read back from a ResultsStore.
+     */
+    public GameResult(GameMode gameMode, long seed, int score1, int score2, int turns){
+        this(gameMode, seed, score1, score2, turns, -1);
+    }
+
+    public GameResult(GameMode gameMode, long seed, int score1, int score2, int turns, int longestStreak){
+        this.gameMode = gameMode;
+        this.seed = seed;
+        this.score1 = score1;
+        this.score2 = score2;
+        this.turns = turns;
+        this.longestStreak = longestStreak;
+    }
+
+    public GameMode getGameMode(){
+        return gameMode;
+    }
+
+    public long getSeed(){
+        return seed;
+    }
+
+    /**
+     * @param player (int) 0 for the first player, 1 for the second
+     * @return (int) the number of pairs or books the player made
+     */
+    public int getScore(int player){
+        return player == 0 ? score1 : score2;
+    }
+
+    /**
+     * @return (int) 0 or 1 for the winning player, or -1 if the game was a draw.
+     */
+    public int getWinner(){
+        if (score1 > score2){
+            return 0;
+        }
+        else if (score1 < score2){
+            return 1;
+        }
+        return -1;
+    }
+
+    public boolean isDraw(){
+        return score1 == score2;
+    }
+
+    /**
+     * @return (int) the number of turns taken before the deck and both hands were empty.
+     */
+    public int getTurns(){
+        return turns;
+    }
+
+    /**
+     * @return (int) the most successful asks in a row either player made in one turn, or -1 if not known.
+     */
+    public int getLongestStreak(){
+        return longestStreak;
+    }
+
+    public String toString(){
+        return GameMode.modeToString(gameMode) + " seed=" + seed + " score=" + score1 + "-" + score2
+                + " turns=" + turns;
+    }
+}
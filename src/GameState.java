@@ -0,0 +1,270 @@
+/**
+ * An immutable snapshot of a two-player game between asks: both hands, both scores, the cards left in the deck
+ * (in order) and the turn number. apply() returns the state after the player to move asks for a rank, so a
+ * search or a what-if analysis can branch from any state as often as it likes without copying anything first.
+ *
+ * Hands are 52-bit masks (see Card.getIndex()) and the deck is a shared byte array of card indexes with a
+ * cursor, so a successor state costs one small object: the deck array is never changed, only read further along.
+ * The rules are the same as GoFish's, and a state taken from a game stays in step with it, card for card.
+ * Only variants where every card ends up in a pair or book (sets of 2 or 4) can be captured: with books of 3,
+ * the game would need to know which leftover cards can never be booked.
+ */
+
+public final class GameState {
+    private final GameMode gameMode;
+    private final Rules rules;
+    private final byte[] deckCards; //card indexes, top first; shared by every state that follows from this one
+    private final int top; //position of the top card in deckCards
+    private final long hand1;
+    private final long hand2;
+    private final int score1;
+    private final int score2;
+    private final int turn;
+
+    private GameState(GameMode gameMode, byte[] deckCards, int top, long hand1, long hand2, int score1, int score2, int turn){
+        this.gameMode = gameMode;
+        this.rules = gameMode.getRules();
+        this.deckCards = deckCards;
+        this.top = top;
+        this.hand1 = hand1;
+        this.hand2 = hand2;
+        this.score1 = score1;
+        this.score2 = score2;
+        this.turn = turn;
+    }
+
+    /**
+     * Takes a snapshot of a game that is waiting for its current player to ask (or is over).
+     * @param game (GoFish) the game, in the ASK or GAME_OVER phase
+     * @return (GameState) the state of the game
+     */
+    public static GameState of(GoFish game){
+        if (game.getPhase() != TurnPhase.ASK && game.getPhase() != TurnPhase.GAME_OVER){
+            throw new IllegalStateException("a game can only be captured between asks, not in " + game.getPhase());
+        }
+        checkSupported(game.getGameMode());
+        Deck deck = game.getDeck();
+        byte[] deckCards = new byte[deck.size()];
+        for (int i = 0; i < deckCards.length; i++){
+            deckCards[i] = (byte) deck.cardIndexAt(i);
+        }
+        Player[] players = game.getPlayers();
+        GameState state = new GameState(game.getGameMode(), deckCards, 0,
+                players[0].getHandMask(), players[1].getHandMask(),
+                game.getScore(players[0]), game.getScore(players[1]), game.getTurn());
+        return game.isGameOver() ? state : state.toNextAsk();
+    }
+
+    /**
+     * Builds a state from its parts, such as a position set up for analysis. If the player to move has no cards,
+     * the state moves on to the next ask, as a game would.
+     * @param gameMode (GameMode) the rules to play by
+     * @param hand1 (long) the first player's hand, as a mask of card indexes (see Card.getIndex())
+     * @param hand2 (long) the second player's hand
+     * @param score1 (int) the first player's pairs or books
+     * @param score2 (int) the second player's pairs or books
+     * @param deckCards (int[]) the indexes of the cards left in the deck, top first
+     * @param turn (int) the turn number; even when the first player is to move
+     * @return (GameState) the state
+     */
+    public static GameState of(GameMode gameMode, long hand1, long hand2, int score1, int score2, int[] deckCards, int turn){
+        checkSupported(gameMode);
+        byte[] cards = new byte[deckCards.length];
+        for (int i = 0; i < cards.length; i++){
+            cards[i] = (byte) deckCards[i];
+        }
+        GameState state = new GameState(gameMode, cards, 0, hand1, hand2, score1, score2, turn);
+        return state.isGameOver() ? state : state.toNextAsk();
+    }
+
+    /**
+     * @param gameMode (GameMode)
+     * @return (boolean) true if states of the gameplay can be captured: every card must end up in a pair or book
+     */
+    public static boolean supports(GameMode gameMode){
+        return 4 % gameMode.getRules().getSetSize() == 0;
+    }
+
+    private static void checkSupported(GameMode gameMode){
+        if (!supports(gameMode)){
+            throw new IllegalArgumentException(GameMode.modeToString(gameMode) + " games can't be captured as a GameState");
+        }
+    }
+
+    public GameMode getGameMode(){
+        return gameMode;
+    }
+
+    /**
+     * @param player (int) 0 for the first player, 1 for the second
+     * @return (long) the player's hand as a mask of card indexes, see Card.getIndex()
+     */
+    public long getHand(int player){
+        return player == 0 ? hand1 : hand2;
+    }
+
+    /**
+     * @param player (int) 0 for the first player, 1 for the second
+     * @return (int) the number of pairs or books the player has made
+     */
+    public int getScore(int player){
+        return player == 0 ? score1 : score2;
+    }
+
+    public int getTurn(){
+        return turn;
+    }
+
+    /**
+     * @return (int) 0 or 1 for the player who asks next
+     */
+    public int getCurrentPlayer(){
+        return turn % 2;
+    }
+
+    public int getDeckSize(){
+        return deckCards.length - top;
+    }
+
+    /**
+     * @param pos (int) 0 for the top card of the deck
+     * @return (int) the index of the card, see Card.getIndex()
+     */
+    public int deckCardAt(int pos){
+        return deckCards[top + pos];
+    }
+
+    public boolean isGameOver(){
+        return top == deckCards.length && hand1 == 0 && hand2 == 0;
+    }
+
+    /**
+     * @return (int) 0 or 1 for the winning player, or -1 if the game was a draw (or is not over yet and tied).
+     */
+    public int getWinner(){
+        if (score1 > score2){
+            return 0;
+        }
+        else if (score1 < score2){
+            return 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether the current player may ask for a rank: they must hold at least one card of it.
+     * @param rank (Rank)
+     * @return (boolean)
+     */
+    public boolean canAsk(Rank rank){
+        return !isGameOver() && (getHand(getCurrentPlayer()) & rankMask(rank.ordinal())) != 0;
+    }
+
+    /**
+     * Plays the current player's ask for a rank: the opponent hands over (a card of) the rank, or the player goes
+     * fishing and the turn passes. Turns that need no choice (an empty hand) are played through as well, so the
+     * returned state is again waiting for an ask, or the game is over.
+     * @param rank (Rank) the rank to ask for, which the current player must hold
+     * @return (GameState) the state after the ask; this state is unchanged
+     */
+    public GameState apply(Rank rank){
+        if (!canAsk(rank)){
+            throw new IllegalArgumentException("player " + (getCurrentPlayer() + 1) + " can't ask for " + rank);
+        }
+        int r = rank.ordinal();
+        boolean firstAsks = getCurrentPlayer() == 0;
+        long mine = firstAsks ? hand1 : hand2;
+        long theirs = firstAsks ? hand2 : hand1;
+        int myScore = firstAsks ? score1 : score2;
+        int setSize = rules.getSetSize();
+
+        long given = removed(theirs, r, rules.getMaxHandedOver());
+        if (given != 0){ //the ask worked; the player goes again
+            theirs &= ~given;
+            mine |= given;
+            if (Long.bitCount(mine & rankMask(r)) >= setSize){
+                mine &= ~removed(mine, r, setSize);
+                myScore++;
+            }
+            return with(mine, theirs, myScore, top, turn).toNextAsk();
+        }
+
+        //go fish, and the turn passes
+        long drawn = fish(mine, myScore);
+        GameState next = with(drawn, theirs, (int) (drawn >>> 56), top == deckCards.length ? top : top + 1, turn + 1);
+        return next.isGameOver() ? next : next.toNextAsk();
+    }
+
+    /**
+     * Plays through turns whose player has no cards, as GoFish does: they draw a card (if any) and the turn passes.
+     * This is also how the last turn ends once every card is out of play.
+     */
+    private GameState toNextAsk(){
+        GameState state = this;
+        while (state.getHand(state.getCurrentPlayer()) == 0){
+            boolean firstMoves = state.getCurrentPlayer() == 0;
+            long drawn = state.fish(0L, state.getScore(state.getCurrentPlayer()));
+            int top = state.top == state.deckCards.length ? state.top : state.top + 1;
+            state = state.with(drawn, firstMoves ? state.hand2 : state.hand1, (int) (drawn >>> 56), top, state.turn + 1);
+            if (state.isGameOver()){ //the game ends as the turn passes
+                break;
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Draws the top card (if there is one) into a hand, making a pair or book with it if possible.
+     * @param hand (long) the hand drawing the card
+     * @param score (int) the drawing player's score
+     * @return (long) the new hand in the low 52 bits, and the new score in the top 8 bits
+     */
+    private long fish(long hand, int score){
+        if (top < deckCards.length){
+            int card = deckCards[top];
+            int r = card >> 2;
+            int setSize = rules.getSetSize();
+            if (Long.bitCount(hand & rankMask(r)) == setSize - 1){
+                hand &= ~removed(hand, r, setSize - 1);
+                score++;
+            }
+            else{
+                hand |= 1L << card;
+            }
+        }
+        return hand | (long) score << 56;
+    }
+
+    /**
+     * @param mine (long) the current player's new hand (bits above 51 are ignored)
+     * @param theirs (long) the opponent's new hand
+     * @param myScore (int) the current player's new score
+     */
+    private GameState with(long mine, long theirs, int myScore, int top, int turn){
+        mine &= (1L << 52) - 1;
+        if (getCurrentPlayer() == 0){
+            return new GameState(gameMode, deckCards, top, mine, theirs, myScore, score2, turn);
+        }
+        return new GameState(gameMode, deckCards, top, theirs, mine, score1, myScore, turn);
+    }
+
+    private static long rankMask(int r){
+        return 0xFL << (r * 4);
+    }
+
+    /**
+     * The cards Player.removeRank() would take from a hand: up to max of the rank, highest suits first.
+     */
+    private static long removed(long hand, int r, int max){
+        long ofRank = hand & rankMask(r);
+        for (int extra = Long.bitCount(ofRank) - max; extra > 0; extra--){
+            ofRank &= ofRank - 1;
+        }
+        return ofRank;
+    }
+
+    public String toString(){
+        return gameMode + " turn " + turn + ": " + score1 + "-" + score2 + ", deck " + getDeckSize()
+                + ", hands " + Long.bitCount(hand1) + "/" + Long.bitCount(hand2) + (isGameOver() ? ", game over" : "");
+    }
+}
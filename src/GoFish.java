@@ -16,6 +16,10 @@
  * and the opponent will give everything they have for a max of 3 cards.
  * Players will earn one point for every book (4 of a kind) they make.
  *
+ * There are two more variants of books: Singles, where the opponent only ever hands over a single card,
+ * and Threes, where 3 of a kind make a book. Each gameplay's Rules decide what happens to the cards
+ * handed over, drawn and dealt, so the game itself is the same for all of them.
+ *
  * Object Oriented Programming
  * Spring 2021
  * @author Sarah Nash
@@ -24,138 +28,416 @@
  *
  */
 
-import java.util.ArrayList;
-import java.util.Random;
 import java.util.Scanner;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class GoFish {
 
-    private Scanner scan = new Scanner(System.in);
-    private Random rand = new Random();
+    private Scanner scan;
+    private SplittableRandom rand;
+    private long seed;
     public GameMode gameMode;
+    private Rules rules; //gameMode's, looked up once
+    private GameEventListener listener;
+
+    //the state of the game in progress, advanced one phase at a time by step()
+    private Deck deck;
+    private Player[] players;
+    private int turn;
+    private TurnPhase phase;
+    private Rank wantedRank;
+    private int streak; //successful asks in a row this turn
+    private int longestStreak;
 
 
     /**
      * Actually runs the game of Go Fish.
      */
     public GoFish() {
+        scan = new Scanner(System.in);
+        seed = ThreadLocalRandom.current().nextLong();
+        rand = new SplittableRandom(seed);
+        ConsoleListener console = new ConsoleListener();
+        listener = console;
+
         System.out.println(
                 "Welcome to Go Fish!" +
                         "\nPlease enter your name: ");
         String name = scan.next();
         System.out.println("Welcome, " + name + "! "
-                + "This game has two possible styles: Pairs and Books."
+                + "This game has two main styles: Pairs and Books."
                 + "\nThe goal of Pairs is to get as many pairs (2 of a kind) as possible, "
                 + "while the goal of Books is to get as many books (4 of a kind) as possible. "
-                + "\nWhich rules would you like to play by? (Pairs or Books):  ");
+                + "\nFor a change, Singles is Books where you only get one card per ask, and Threes is Books of 3 of a kind."
+                + "\nWhich rules would you like to play by? (Pairs, Books, Singles or Threes):  ");
 
         String mode = scan.next();
         gameMode = chooseGameMode(mode);
+        rules = gameMode.getRules();
 
         System.out.println("Excellent! Playing " + GameMode.modeToString(gameMode) + "...");
 
         Player human = new Player(true, name);
-        Player computer = new Player(false, "Computer");
+        Player computer = new Player("Computer", new RandomStrategy());
         Player[] players = {human, computer};
 
         Deck deck = new Deck();
-        deck.shuffleDeck();
+        deck.shuffleDeck(rand);
+
+        startGame(deck, players);
+        while (phase != TurnPhase.GAME_OVER) {
+            if (isAwaitingInput()) { //let the player ask for a value in their hand
+                console.showHand(human);
+                askFor(chooseRank(human));
+            }
+            else {
+                step();
+            }
+        }
+        console.flush();
+        System.out.println("(game seed " + seed + ")");
+    }
+
+    /**
+     * Creates a game with no console input, which reports what happens to the given listener.
+     * @param gameMode (GameMode) the rules to play by
+     * @param seed (long) seeds the shuffle and the computer players' choices
+     * @param listener (GameEventListener) receives every event of the game
+     */
+    private GoFish(GameMode gameMode, long seed, GameEventListener listener){
+        this.gameMode = gameMode;
+        this.rules = gameMode.getRules();
+        this.seed = seed;
+        this.rand = new SplittableRandom(seed);
+        this.listener = listener;
+    }
+
+    /**
+     * Shuffles a new deck and deals a silent game that is played by calling step(),
+     * with askFor() supplying the rank whenever a human player is awaiting input.
+     * @param gameMode (GameMode) the rules to play by
+     * @param seed (long) seeds the shuffle and the computer players' choices
+     * @param players (Player[]) the two players, in turn order
+     */
+    public GoFish(GameMode gameMode, long seed, Player[] players){
+        this(gameMode, seed, players, SilentListener.INSTANCE);
+    }
+
+    /**
+     * Shuffles a new deck and deals a game that is played by calling step(),
+     * reporting everything that happens to the given listener.
+     * @param gameMode (GameMode) the rules to play by
+     * @param seed (long) seeds the shuffle and the computer players' choices
+     * @param players (Player[]) the two players, in turn order
+     * @param listener (GameEventListener) receives every event of the game
+     */
+    public GoFish(GameMode gameMode, long seed, Player[] players, GameEventListener listener){
+        this(gameMode, seed, listener);
+        Deck deck = new Deck();
+        deck.shuffleDeck(rand);
+        startGame(deck, players);
+    }
+
+    /**
+     * Plays one computer-vs-computer game to completion without reading from or printing to the console.
+     * @param gameMode (GameMode) the rules to play by
+     * @param seed (long) the same seed and strategies always play out the same game
+     * @param strategies (Strategy[]) the strategies of the first and second player
+     * @return (GameResult) the final scores and number of turns
+     */
+    public static GameResult simulate(GameMode gameMode, long seed, Strategy[] strategies){
+        return simulate(gameMode, seed, strategies, new Deck());
+    }
+
+    /**
+     * Plays one headless game using an existing deck, which is reset and reshuffled first.
+     * Lets a simulation reuse one Deck for every game it plays.
+     * @param gameMode (GameMode) the rules to play by
+     * @param seed (long) the same seed and strategies always play out the same game
+     * @param strategies (Strategy[]) the strategies of the first and second player
+     * @param deck (Deck) the deck to play with; not shared with other threads
+     * @return (GameResult) the final scores and number of turns
+     */
+    public static GameResult simulate(GameMode gameMode, long seed, Strategy[] strategies, Deck deck){
+        return simulate(gameMode, seed, strategies, deck, SilentListener.INSTANCE);
+    }
+
+    /**
+     * Plays one headless game and reports every event to the given listener,
+     * e.g. an EventLog so that GameReplay can rebuild the game from the seed and the log.
+     * @param gameMode (GameMode) the rules to play by
+     * @param seed (long) the same seed and strategies always play out the same game
+     * @param strategies (Strategy[]) the strategies of the first and second player
+     * @param deck (Deck) the deck to play with; not shared with other threads
+     * @param listener (GameEventListener) receives every event of the game
+     * @return (GameResult) the final scores and number of turns
+     */
+    public static GameResult simulate(GameMode gameMode, long seed, Strategy[] strategies, Deck deck,
+                                      GameEventListener listener){
+        GoFish game = new GoFish(gameMode, seed, listener);
+        Player[] players = {
+                new Player("Computer 1", strategies[0]),
+                new Player("Computer 2", strategies[1])
+        };
+
+        deck.reset();
+        deck.shuffleDeck(game.rand);
+
+        game.startGame(deck, players);
+        while (game.phase != TurnPhase.GAME_OVER) {
+            game.step();
+        }
+        return new GameResult(gameMode, seed, game.getScore(players[0]), game.getScore(players[1]), game.turn,
+                game.longestStreak);
+    }
+
+    /**
+     * Deals the starting hands, checks them for pairs or books, and begins the first player's turn.
+     * @param deck (Deck) a shuffled deck
+     * @param players (Player[]) the two players, in turn order
+     */
+    private void startGame(Deck deck, Player[] players){
+        this.deck = deck;
+        this.players = players;
+        this.turn = 0;
+
+        attachStrategies();
 
         //deal cards to the players
 
-        deck.dealCards( players, 7);
+        listener.gameStarted(gameMode, players);
+        deck.dealCards( players, 7, listener);
+        listener.handsDealt(players);
 
         //and check everyone's hand for books or pairs
-        if(gameMode.equals(GameMode.PAIRS)){
-            System.out.println("\n\tChecking for pairs...");
-            for (Player player : players) {
-                checkPairs(player);
-                System.out.println(player.name + " has " + player.getNumPairs() + " pairs total.");
-            }
+        for (Player player : players) {
+            rules.checkStartingHand(player, listener);
         }
-        else{ //gameMode is Books...
-            System.out.println("\n\tChecking for books...");
-            for (Player player : players) {
-                checkBooks(player);
-                System.out.println(player.name + " has " + player.getNumBooks() + " books total.");
+        listener.handsChecked(players);
+
+        //next, take turns until the game ends
+        beginAsk();
+    }
+
+    /**
+     * Lets strategies that learn from the game, like CardCountingStrategy, hear everything the listener hears.
+     */
+    private void attachStrategies(){
+        for (Player player : players) {
+            if (player.getStrategy() instanceof GameEventListener) {
+                listener = new MulticastListener(listener, (GameEventListener) player.getStrategy());
             }
         }
+    }
 
+    /**
+     * Sets up a silent game part way through, at the start of a turn: the players already hold their hands
+     * and scores, and the deck holds only the cards not yet drawn. Used by searches that play out possible futures.
+     * @param gameMode (GameMode) the rules to play by
+     * @param seed (long) seeds the computer players' choices
+     * @param players (Player[]) the two players, in turn order
+     * @param deck (Deck) the cards left to draw
+     * @param turn (int) the number of turns taken so far; players[turn%2] moves next
+     * @return (GoFish) the game, in the ASK phase
+     */
+    public static GoFish fromPosition(GameMode gameMode, long seed, Player[] players, Deck deck, int turn){
+        GoFish game = new GoFish(gameMode, seed, SilentListener.INSTANCE);
+        game.deck = deck;
+        game.players = players;
+        game.turn = turn;
+        game.phase = TurnPhase.ASK;
+        game.attachStrategies();
+        return game;
+    }
 
-        //next, take turns until the game ends
-        int turn = 0;
-        while (!deck.isEmpty() || !players[0].getHand().isEmpty() || !players[1].getHand().isEmpty()) {
-            Player player = players[turn%2];
-            takeTurn(deck, player, players[(turn+1)%2]);
-            turn++;
+    /**
+     * Saves the game so it can be put away (e.g. written to disk by a server with many idle tables) and played on
+     * later with restore(). The computer players' choices from here on are reseeded from the checkpoint, so this
+     * game and any game restored from the checkpoint play on exactly alike. Taking a checkpoint therefore changes
+     * this game: from here on it plays differently from the same seed played without one (a SplittableRandom's
+     * state can't be read, only a new seed drawn from it).
+     * @return (GameCheckpoint) the saved game
+     * @throws IllegalStateException unless the game is at the start of an ask (the ASK phase)
+     */
+    public GameCheckpoint checkpoint(){
+        if (phase != TurnPhase.ASK){
+            throw new IllegalStateException("a game can only be saved at the start of an ask, not in " + phase);
         }
+        long resumeSeed = rand.nextLong();
+        rand = new SplittableRandom(resumeSeed);
+        return new GameCheckpoint(gameMode, turn, seed, resumeSeed, players, deck);
+    }
 
+    /**
+     * Carries on a saved game where checkpoint() left it, in the ASK phase. Nothing that already happened is
+     * reported to the listener again: it (and any strategy that listens) hears gameResumed and turnStarted, and then
+     * the current player's ask (or fishing, if their hand is empty).
+     * @param checkpoint (GameCheckpoint) the saved game
+     * @param players (Player[]) the two players, in turn order; their hands and scores are replaced by the saved ones
+     * @param listener (GameEventListener) receives every event from here on
+     * @return (GoFish) the game, in the ASK phase
+     */
+    public static GoFish restore(GameCheckpoint checkpoint, Player[] players, GameEventListener listener){
+        GoFish game = new GoFish(checkpoint.getGameMode(), checkpoint.getSeed(), listener);
+        game.rand = new SplittableRandom(checkpoint.getResumeSeed());
+        checkpoint.restorePlayers(players);
+        game.deck = new Deck();
+        checkpoint.restoreDeck(game.deck);
+        game.players = players;
+        game.turn = checkpoint.getTurn();
+        game.phase = TurnPhase.ASK;
+        game.attachStrategies();
+        game.listener.gameResumed(game.gameMode, players);
+        game.listener.turnStarted(players[game.turn%2]);
+        return game;
+    }
 
-        //once the deck and hands are empty, show the score
-        if(deck.isEmpty() && players[0].getHand().isEmpty() && players[1].getHand().isEmpty()){
-            Player winner = checkWin(players[0], players[1]);
-            System.out.println("\nSince there are no more cards in play, the game is over!");
-            System.out.println("\n=== F I N A L  S C O R E ===");
-            if(winner==null){
-                System.out.println("\nIt's a draw!");
-            }
-            else{
-                System.out.println("\n" + winner.name + " is the winner of this match!");
-            }
+    /**
+     * Moves the game forward by one phase of the current turn. Does nothing while a human player is
+     * awaiting input or once the game is over, so a caller can step many games in turn on one thread.
+     * @return (TurnPhase) the phase the game is now in
+     */
+    public TurnPhase step(){
+        Player player = players[turn%2];
+        Player opponent = players[(turn+1)%2];
+
+        switch (phase) {
+            case ASK:
+                if(player.isHandEmpty()){
+                    listener.handEmpty(player);
+                    phase = TurnPhase.FISH;
+                }
+                else if(!player.isHuman()){ //if the player is the computer, let its strategy choose a value to ask for
+                    wantedRank = player.getStrategy().chooseRank(player, opponent, rand);
+                    phase = TurnPhase.RESOLVE;
+                }
+                break; //a human player's rank comes from askFor()
+            case RESOLVE:
+                boolean haveAny = doYouHaveAny(player, opponent, wantedRank); //ask opponent for card(s) with that value
+                if(haveAny){
+                    streak++;
+                    if(streak > longestStreak){
+                        longestStreak = streak;
+                    }
+                    beginAsk(); //go again
+                }
+                else{
+                    phase = TurnPhase.FISH;
+                }
+                break;
+            case FISH:
+                goFish(deck, player);
+                phase = TurnPhase.NEXT_PLAYER;
+                break;
+            case NEXT_PLAYER:
+                listener.turnEnded(player);
+                turn++;
+                streak = 0;
+                if (rules.isOver(deck, players)) {
+                    phase = TurnPhase.GAME_OVER;
+                    listener.gameOver(players, checkWin(players[0], players[1]));
+                }
+                else {
+                    beginAsk();
+                }
+                break;
+            case GAME_OVER:
+                break;
+        }
+        return phase;
+    }
 
-            if(gameMode == GameMode.PAIRS){
-                System.out.println(
-                        players[0].name + " had " + players[0].getNumPairs() + " pairs, " +
-                                " while " +
-                                players[1].name + " had " + players[1].getNumPairs() + " pairs. ");
-            }
-            else{
-                System.out.println(
-                        players[0].name + " had " + players[0].getNumBooks() + " books, " +
-                                " while " +
-                                players[1].name + " had " + players[1].getNumBooks() + " books.");
-            }
+    /**
+     * Plays the rest of the current player's turn, until the turn passes to the opponent.
+     * Used for computer players; stops early if a human player needs to choose a rank.
+     */
+    public void takeTurn(){
+        int current = turn;
+        while (turn == current && phase != TurnPhase.GAME_OVER && !isAwaitingInput()) {
+            step();
+        }
+    }
+
+    /**
+     * Starts (or restarts, after a successful ask) the current player's turn.
+     */
+    private void beginAsk(){
+        phase = TurnPhase.ASK;
+        listener.turnStarted(players[turn%2]);
+    }
 
+    /**
+     * @return (boolean) true if the game is waiting for a human player to choose a rank with askFor().
+     */
+    public boolean isAwaitingInput(){
+        Player player = players[turn%2];
+        return phase == TurnPhase.ASK && player.isHuman() && !player.isHandEmpty();
+    }
 
+    /**
+     * Supplies the rank the current player asks for: a human player's choice, or a computer player's
+     * first ask when a search tries out each possible move. The next step() asks the opponent for it.
+     * @param rank (Rank) the rank to ask for
+     * @return (boolean) false if the game is not at the start of an ask or the rank is not in the player's hand.
+     */
+    public boolean askFor(Rank rank){
+        if(phase != TurnPhase.ASK || !players[turn%2].hasRank(rank)){
+            return false;
         }
+        wantedRank = rank;
+        phase = TurnPhase.RESOLVE;
+        return true;
+    }
+
+    public TurnPhase getPhase(){
+        return phase;
+    }
+
+    public boolean isGameOver(){
+        return phase == TurnPhase.GAME_OVER;
     }
 
     /**
-     * Allows the player to take their turn until their hand is empty or the opponent does not have the card they want.
-     * @param deck (ArrayList<Card>) the current cards in the deck.
-     * @param player (Player) the current player
-     * @param opponent (Player) the current player's opponent
+     * @return (Player) the player whose turn it is.
      */
-    public void takeTurn(Deck deck, Player player, Player opponent){
-        Rank wantedRank;
+    public Player getCurrentPlayer(){
+        return players[turn%2];
+    }
 
-        System.out.println("\n===" + player.name + "'s turn!===");
+    public Player[] getPlayers(){
+        return players;
+    }
 
-        if(player.getHand().isEmpty()){
-            System.out.println("... but their hand is empty! Go fish!");
-            goFish(deck, player);
-        }
+    /**
+     * @return (int) the number of turns that have passed to the next player so far.
+     */
+    public int getTurn(){
+        return turn;
+    }
 
-        else{
-            if(player.isHuman()){ //let the player ask for a value in their hand
-                System.out.println("Here's your hand: ");
-                Player.printHand(player.getHand());
-                wantedRank = chooseRank(player);
-            }
-            else{ //if the player is the computer, then randomly choose a value to ask for
-                int pos = rand.nextInt(player.getHand().size());
-                wantedRank = player.getHand().get(pos).getValue();
-            }
+    /**
+     * @return (int) the most successful asks in a row either player has made in one turn so far
+     *               (counted from the restore, for a restored game).
+     */
+    public int getLongestStreak(){
+        return longestStreak;
+    }
 
-            boolean haveAny = doYouHaveAny(player, opponent, wantedRank); //ask opponent for card(s) with that value
+    public Deck getDeck(){
+        return deck;
+    }
 
-            if(haveAny){
-                takeTurn(deck, player, opponent); //go again
-            }
-            else{
-                goFish(deck, player);
-            }
-        }
+    /**
+     * @return (long) the seed of the shuffle and the computer players' choices; the same seed, strategies
+     * (and human choices) play out the same game again
+     */
+    public long getSeed(){
+        return seed;
+    }
+
+    public GameMode getGameMode(){
+        return gameMode;
     }
 
     /**
@@ -165,56 +447,13 @@ public class GoFish {
      * @param player (Player) the player drawing a card
      */
     public void goFish(Deck deck, Player player) {
-        ArrayList<Card> hand = player.getHand();
-
         if (deck.isEmpty()) {
-            System.out.println("....but the deck is empty!");
+            listener.deckEmpty(player);
         }
         else { //else, draw from the deck
             Card topCard = deck.getTopCard(); //but, don't add it to the hand yet
-
-            if (player.isHuman()) { //if human, tell them what card was drawn
-                System.out.println(player.name + " drew the " + topCard.toString() + " from the deck. ");
-            }
-
-            boolean pairMade = false;
-            if (gameMode.equals(GameMode.PAIRS)) { //check just the last card against the rest for a pair
-                for (Card card : hand) {
-                    Rank value = card.getValue();
-                    if (value.equals(topCard.getValue())) {
-                        player.addPair();
-                        System.out.println(
-                                player.name + " made a pair of " + Rank.rankToString(value)
-                                        + "s, and now has " + player.getNumPairs() + " total pairs! ");
-                        hand.remove(card);
-                        pairMade = true;
-                        break;
-                    }
-                }
-                if (!pairMade) {
-                    hand.add(topCard);
-                }
-            }
-
-            else { //check just the value of the card for books
-                int numSameValue = 0; //remember that the topCard isn't in the hand yet
-                for (Card card : hand) {
-                    if (card.getValue().equals(topCard.getValue())) {
-                        numSameValue++;
-                    }
-                }
-
-                if (numSameValue == 3) { //if a book is made, remove cards from hand and dont give the top card
-                    player.addBook();
-                    System.out.println(
-                            player.name + " made a book of " + Rank.rankToString(topCard.getValue())
-                            + "'s, and now has " + player.getNumBooks() + " total books!");
-                    removeCards(player, topCard.getValue(), gameMode); //then remove them from the deck
-                }
-                else{ //if they didn't make a book, give them the card
-                    hand.add(topCard);
-                }
-            }
+            listener.cardDrawn(player, topCard);
+            rules.draw(player, topCard, listener); //it may make a pair or book with the hand
         }
     }
 
@@ -228,58 +467,40 @@ public class GoFish {
      */
     public boolean doYouHaveAny(Player current,Player opponent, Rank targetRank){
 
-        ArrayList<Card> opponentCards = removeCards(opponent, targetRank, gameMode);
-        System.out.println(current.name + " asks " + opponent.name
-                + " if they have any " + Rank.rankToString(targetRank) + "s.");
+        listener.asked(current, opponent, targetRank); //before the cards move, so a timed Ask event covers the ask
+        long opponentCards = opponent.removeRank(targetRank, rules.getMaxHandedOver());
 
-        if(!opponentCards.isEmpty()){ //if the opponent gives the player at least one card
-            if(gameMode.equals(GameMode.PAIRS)){
-                Card opponentCard = opponentCards.get(0);
-                current.addPair();
-                removeCards(current, targetRank, gameMode);
-
-                System.out.println("Yes! " + opponent.name + " hands over the " + opponentCard.toString() + ".");
-                System.out.println(
-                        current.name +  " made a pair of " + Rank.rankToString(targetRank) +
-                                "s, and now has " + current.getNumPairs() + " total pairs. Go again!");
-            }
-
-            else{ //looking for Books
-                System.out.println("Success!");
-                for(Card card:opponentCards){
-                    current.addCard(card);
-                    System.out.println(opponent.name + " hands over the " + card.toString() + ".");
-                }
-
-                //now, check the current player's hand to see if that was enough for a book
-                boolean bookFound = checkBooks(current);
-
-                if(bookFound){
-                    current.addBook();
-                    removeCards(current, targetRank, gameMode);
-                    System.out.println(
-                            current.name +  " made a books of " + Rank.rankToString(targetRank) +
-                                    "s, and now has " + current.getNumBooks() + " total books. Go again!");
-                }
-                else{
-                    System.out.println("It's not enough for a book, but you may still go again!");
-                }
-            }
+        if(opponentCards != 0){ //if the opponent gives the player at least one card
+            rules.handOver(current, opponent, targetRank, opponentCards, listener);
             return true;
         }
         else{ //the opponent didn't have any cards of that value
-            System.out.println("No " + Rank.rankToString(targetRank) + "'s. Go Fish!");
+            listener.goFish(current, opponent, targetRank);
             return false;
         }
 
     }
 
     /**
-     * Translates player input from String to Rank
+     * Translates player input from String to Rank, asking again until the input is valid.
      * @param rank (String) the player's chosen input rank from the terminal
      * @return (Rank) value: the value the player asks for
      */
     public Rank getRank(String rank){
+        Rank value = parseRank(rank);
+        while (value == null) {
+            System.out.println("Not a valid choice! Try 2-10, J, Q, K, or A");
+            value = parseRank(scan.next());
+        }
+        return value;
+    }
+
+    /**
+     * Translates a String such as "10" or "q" to a Rank.
+     * @param rank (String) the rank as typed by a player
+     * @return (Rank) value: the matching rank, or null if the input is not a rank
+     */
+    public static Rank parseRank(String rank){
         Rank value;
         switch (rank.toLowerCase()) {
             case "2":
@@ -322,9 +543,7 @@ public class GoFish {
                 value = Rank.ACE;
                 break;
             default:
-                System.out.println("Not a valid choice! Try 2-10, J, Q, K, or A");
-                String newValue = scan.next();
-                value = getRank(newValue);
+                value = null;
                 break;
         }
         return value;
@@ -337,132 +556,51 @@ public class GoFish {
      * @return (Rank) value: the value the player asks for.
      */
     public Rank chooseRank(Player player){
-        ArrayList<Card> hand = player.getHand();
-        System.out.println("What value would you like to ask your opponent for? Choose 2-10, J,Q,K, or A: ");
-        String value = scan.next();
-        Rank wantedRank = getRank(value);
-
-        //check that the card is in the hand
-        for(Card card:hand){
-            if (card.getValue().equals(wantedRank)) {
+        while (true) {
+            System.out.println("What value would you like to ask your opponent for? Choose 2-10, J,Q,K, or A: ");
+            String value = scan.next();
+            Rank wantedRank = getRank(value);
+
+            //check that the card is in the hand
+            if (player.hasRank(wantedRank)) {
                 return wantedRank;
             }
+            System.out.println("You must pick a value already in your hand!");
         }
-        System.out.println("You must pick a value already in your hand!");
-        return chooseRank(player);
-
     }
 
     /**
      * Lets the player choose to play by forming pairs or forming books.
      * @param mode the player's requested mode to play in
-     * @return (GameMode) gameMode: either pairs or books rules
+     * @return (GameMode) gameMode: pairs, books, singles or threes rules
      */
     public GameMode chooseGameMode(String mode){
-        GameMode gameMode;
-        if (mode.toLowerCase().equals("pair") || mode.toLowerCase().equals("pairs")){
-            gameMode = GameMode.PAIRS;
-        }
-        else if (mode.toLowerCase().equals("book") || mode.toLowerCase().equals("books")){
-            gameMode = GameMode.BOOKS;
-        }
-        else{
-            System.out.println("Not a valid choice! Try 'pairs' or 'books'");
-            mode = scan.next();
-            gameMode = chooseGameMode(mode);
+        GameMode gameMode = parseGameMode(mode);
+        while (gameMode == null) {
+            System.out.println("Not a valid choice! Try 'pairs', 'books', 'singles' or 'threes'");
+            gameMode = parseGameMode(scan.next());
         }
         return gameMode;
     }
 
     /**
-     * Checks the player's hand for pairs in general, prints the pair that was found, and removes cards from the player's hand.
-     * @param player (Player)
-     * @return
+     * @param mode (String) the mode as typed by a player
+     * @return (GameMode) gameMode: pairs, books, singles or threes rules, or null if the input is none of them
      */
-    public boolean checkPairs(Player player){
-        ArrayList<Card> hand = player.getHand();
-
-        boolean foundPair = false;
-        for (int i=0; i<hand.size()-1; i++){
-            Card card1 = hand.get(i);
-            for (int j=i+1; j<hand.size(); j++){
-                Card card2 = hand.get(j);
-
-                if (card1.getValue().equals(card2.getValue())) {
-                    hand.remove(j);
-                    hand.remove(i);
-                    i--;
-
-                    player.addPair();
-                    System.out.println(player.name + " found a pair: " +
-                            "\n\t" + card1.toString() + " and "  + card2.toString()); //prints the pair found
-                    foundPair=true;
-                    break; //only looks for one pair, not all cards with same value
-
-                }
-
-            }
+    public static GameMode parseGameMode(String mode){
+        if (mode.toLowerCase().equals("pair") || mode.toLowerCase().equals("pairs")){
+            return GameMode.PAIRS;
         }
-        return foundPair;
-    }
-
-    /**
-     * Searches the player's hand for a book.
-     * @param player (Player) the current player
-     * @return (boolean) true if a book was found, false otherwise.
-     */
-    public boolean checkBooks(Player player){
-        ArrayList<Card> hand = player.getHand();
-        int numSameValue;
-
-        if(hand.size()>=4){
-            for(int i=0; i<hand.size(); i++){
-                numSameValue=0;
-
-                Rank value1 = hand.get(i).getValue();
-                for(int j=i+1; j<hand.size(); j++){
-                    Rank value2 = hand.get(j).getValue();
-
-                    if(value1.equals(value2)){
-                        numSameValue++;
-                    }
-                }
-
-                if (numSameValue==3){ //3, since we are not including the initial card
-                    removeCards(player,value1, GameMode.BOOKS);
-                    return true;
-                }
-            }
+        else if (mode.toLowerCase().equals("book") || mode.toLowerCase().equals("books")){
+            return GameMode.BOOKS;
         }
-        return false; //else no books found
-
-    }
-
-
-    /**
-     * Removes all cards of a certain value from the player's hand if the gameMode is books.
-     * Will remove only one card if the gameMode is pairs.
-     * @param player (Player) the current player
-     * @param value (Rank) the value to be removed
-     * @param gameMode (GameMode)
-     * @return (ArrayList<Card>) removedCards: the cards removed from the current player's hand.
-     */
-    public ArrayList<Card> removeCards(Player player, Rank value, GameMode gameMode){
-        ArrayList<Card> hand = player.getHand();
-        ArrayList<Card> removedCards= new ArrayList<>();
-        for (Card card:hand){
-            if(card.getValue().equals(value)){
-                removedCards.add(card);
-                if (gameMode.equals(GameMode.PAIRS)) { //only return that one value
-                    hand.remove(card);
-                    return removedCards;
-                }
-            }
+        else if (mode.toLowerCase().equals("single") || mode.toLowerCase().equals("singles")){
+            return GameMode.SINGLES;
         }
-        for(Card card:removedCards){
-            hand.remove(card);
+        else if (mode.toLowerCase().equals("three") || mode.toLowerCase().equals("threes")){
+            return GameMode.THREES;
         }
-        return removedCards;
+        return null;
     }
 
     /**
@@ -472,16 +610,8 @@ public class GoFish {
      * @return (Player) returns the winning Player, or null if it is tie.
      */
     public Player checkWin(Player player1, Player player2){
-        int score1,score2;
-
-        if(gameMode == GameMode.PAIRS){
-            score1 = player1.getNumPairs();
-            score2 = player2.getNumPairs();
-        }
-        else{ //gameMode == GameMode.BOOKS
-            score1 = player1.getNumBooks();
-            score2 = player2.getNumBooks();
-        }
+        int score1 = getScore(player1);
+        int score2 = getScore(player2);
 
         if (score1>score2){
             return  player1;
@@ -494,6 +624,14 @@ public class GoFish {
         }
     }
 
+    /**
+     * @param player (Player)
+     * @return (int) the player's pairs in the pairs gameplay, or books in the books gameplay.
+     */
+    public int getScore(Player player){
+        return rules.getScore(player);
+    }
+
 
     public static void main(String[] args) {
         new GoFish(); //play GoFish
@@ -0,0 +1,170 @@
+/**
+ * Compilation: javac GoFishServer.java
+ * Execution: java GoFishServer [port, default 4321]
+ *
+ * Hosts many games of Go Fish at once over a simple line-based TCP protocol, e.g. with `nc localhost 4321`.
+ * Each connection is served by its own thread (see ClientConnection for the commands), and each game belongs
+ * to a Table, which runs the same GoFish rules as the console game with the ranks coming from the network.
+ *
+ * Lines sent by the server:
+ *   WELCOME                        on connecting
+ *   TABLE id mode opponent first|second
+ *   DEALT card                     one of your starting cards, e.g. DEALT 10H
+ *   YOURTURN cards...              your hand; answer with ASK
+ *   WAIT name                      the other player is choosing
+ *   ASKED name rank                name asked for rank
+ *   GAVE name cards...             name handed over these cards
+ *   GOFISH name                    the ask failed
+ *   DREW card / FISHED name        you / your opponent drew from the deck
+ *   DECKEMPTY name                 there was nothing to draw
+ *   PAIR name rank / BOOK name rank
+ *   HAND cards...                  reply to HAND
+ *   GAMEOVER winner|DRAW score1 score2
+ *   LEFT name                      your opponent left; the game is over
+ *   ERROR message
+ */
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class GoFishServer implements AutoCloseable {
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections = Executors.newCachedThreadPool();
+    private final AtomicInteger nextTableId = new AtomicInteger();
+    private final AtomicInteger activeConnections = new AtomicInteger();
+    private final Map<GameMode, ClientConnection> waiting = new EnumMap<>(GameMode.class); //guarded by itself
+
+    /**
+     * Opens the server socket on localhost. Call start() to begin accepting connections.
+     * @param port (int) the port to listen on, or 0 for any free port
+     * @throws IOException if the port cannot be opened
+     */
+    public GoFishServer(int port) throws IOException {
+        serverSocket = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress());
+    }
+
+    public int getPort(){
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accepts connections on a background thread until close() is called.
+     */
+    public void start(){
+        Thread acceptor = new Thread(this::acceptLoop, "GoFishServer-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    private void acceptLoop(){
+        while (!serverSocket.isClosed()){
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                activeConnections.incrementAndGet();
+                connections.execute(new ClientConnection(this, socket));
+            }
+            catch (IOException e){
+                if (!serverSocket.isClosed()){
+                    System.err.println("GoFishServer: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Seats a connection at a new table against the computer.
+     */
+    void playComputer(ClientConnection player, GameMode gameMode){
+        synchronized (waiting){
+            waiting.values().remove(player); //it can't play two games at once
+        }
+        seat(gameMode, new ClientConnection[]{player, null}).start();
+    }
+
+    /**
+     * Seats a connection with the player waiting for the same rules, or makes it wait for the next one.
+     * A connection is never matched with itself.
+     */
+    void join(ClientConnection player, GameMode gameMode){
+        Table table;
+        synchronized (waiting){
+            ClientConnection opponent = waiting.get(gameMode);
+            if (opponent == null || opponent == player){
+                waiting.put(gameMode, player);
+                player.send("WAITING");
+                player.flush();
+                return;
+            }
+            waiting.remove(gameMode);
+            //seated before the lock is let go, so isWaiting() and the table never both say it is free
+            table = seat(gameMode, new ClientConnection[]{opponent, player});
+        }
+        table.start();
+    }
+
+    /**
+     * @param player (ClientConnection)
+     * @return (boolean) true if the connection is waiting for an opponent to JOIN
+     */
+    boolean isWaiting(ClientConnection player){
+        synchronized (waiting){
+            return waiting.containsValue(player);
+        }
+    }
+
+    private Table seat(GameMode gameMode, ClientConnection[] seats){
+        Table table = new Table(nextTableId.incrementAndGet(), gameMode, seats, ThreadLocalRandom.current().nextLong());
+        for (ClientConnection seat : seats){
+            if (seat != null){
+                seat.seatedAt(table);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Called when a connection closes, so it is no longer matched with new players.
+     */
+    void disconnected(ClientConnection player){
+        activeConnections.decrementAndGet();
+        synchronized (waiting){
+            waiting.values().remove(player);
+        }
+    }
+
+    /**
+     * @return (int) the number of clients currently connected
+     */
+    public int getConnectionCount(){
+        return activeConnections.get();
+    }
+
+    /**
+     * @return (int) the number of tables opened since the server started
+     */
+    public int getTablesOpened(){
+        return nextTableId.get();
+    }
+
+    public void close() throws IOException {
+        serverSocket.close();
+        connections.shutdownNow();
+    }
+
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 4321;
+        GoFishServer server = new GoFishServer(port);
+        System.out.println("Go Fish server listening on localhost:" + server.getPort());
+        server.acceptLoop();
+    }
+}
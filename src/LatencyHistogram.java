@@ -0,0 +1,139 @@
+/**
+ * Counts recorded latencies (in nanoseconds) in log-linear buckets, so percentiles can be read back
+ * to within about 1.5% using a fixed 30 KB of memory however many values are recorded.
+ * Small counts, like TournamentStats' turns per game, are kept exactly.
+ *
+ * Values below 128 get a bucket each; above that, every power of two is split into 64 equal buckets.
+ * Not thread-safe: give each thread its own histogram and merge them at the end, like TournamentStats.
+ */
+import java.util.Arrays;
+
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = 2 * SUB_BUCKETS; //values below this are counted exactly
+
+    static final int BUCKETS = LINEAR_LIMIT + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final long[] counts;
+    private long count;
+    private long total;
+    private long max;
+
+    public LatencyHistogram(){
+        counts = new long[BUCKETS];
+    }
+
+    /**
+     * Builds a histogram from bucket counts collected elsewhere, e.g. by a StripedHistogram.
+     * @param counts (long[]) the count of each bucket, see indexOf(); the array is kept, not copied
+     * @param total (long) the sum of the recorded values
+     * @param max (long) the largest recorded value
+     */
+    LatencyHistogram(long[] counts, long total, long max){
+        this.counts = counts;
+        for (long bucket : counts){
+            count += bucket;
+        }
+        this.total = total;
+        this.max = max;
+    }
+
+    /**
+     * @param value (long) a latency in nanoseconds; negative values are counted as 0
+     */
+    public void record(long value){
+        if (value < 0){
+            value = 0;
+        }
+        counts[indexOf(value)]++;
+        count++;
+        total += value;
+        if (value > max){
+            max = value;
+        }
+    }
+
+    static int indexOf(long value){
+        if (value < LINEAR_LIMIT){
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int top = (int) (value >>> shift); //from 64 to 127
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKETS + (top - SUB_BUCKETS);
+    }
+
+    /**
+     * @param index (int) a bucket
+     * @return (long) the middle of the values counted in that bucket
+     */
+    private static long valueOf(int index){
+        if (index < LINEAR_LIMIT){
+            return index;
+        }
+        int shift = (index - LINEAR_LIMIT) / SUB_BUCKETS + 1;
+        long top = (index - LINEAR_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+        return (top << shift) + (1L << (shift - 1));
+    }
+
+    /**
+     * Adds another histogram's counts to this one.
+     * @param other (LatencyHistogram) the histogram to merge in
+     */
+    public void merge(LatencyHistogram other){
+        for (int i = 0; i < counts.length; i++){
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        total += other.total;
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Forgets every recorded value.
+     */
+    public void reset(){
+        Arrays.fill(counts, 0);
+        count = 0;
+        total = 0;
+        max = 0;
+    }
+
+    /**
+     * @param percentile (double) from 0 to 100, e.g. 99.9
+     * @return (long) the latency that percentile of the recorded values are at or below, 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile){
+        if (count == 0){
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++){
+            seen += counts[i];
+            if (seen >= rank){
+                return Math.min(valueOf(i), max);
+            }
+        }
+        return max;
+    }
+
+    public long getCount(){
+        return count;
+    }
+
+    public long getMax(){
+        return max;
+    }
+
+    /**
+     * @return (long) the sum of every recorded value
+     */
+    public long getTotal(){
+        return total;
+    }
+
+    public double getMean(){
+        return count == 0 ? 0 : total / (double) count;
+    }
+}
@@ -0,0 +1,207 @@
+/**
+ * Compilation: javac LoadGenerator.java
+ * Execution: java LoadGenerator [clients] [games per client] [pairs|books|singles|threes|both|all] [port]
+ *
+ * Load-tests GoFishServer with scripted bot clients, each on its own thread. Every bot plays its games
+ * against the server's computer player, choosing ranks with the same RandomStrategy the computer uses,
+ * and times each ask from sending "ASK" to reading the first line of the server's answer.
+ * Without a port, a server is started in this JVM on a free port.
+ *
+ * Prints games and asks per second and the p50/p99/p99.9 ask latency.
+ * A bot that gets an ERROR, or no answer within READ_TIMEOUT_MILLIS, counts an error and stops playing,
+ * so one confused bot can't hang the run.
+ */
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+
+public class LoadGenerator {
+    //how long a bot waits for the server's next line before giving up
+    private static final int READ_TIMEOUT_MILLIS = 30_000;
+
+    /**
+     * One scripted client: plays its games one after another and records how long each ask took.
+     */
+    private static class Bot implements Runnable {
+        private final int port;
+        private final String name;
+        private final GameMode[] modes;
+        private final int numGames;
+        private final SplittableRandom rand;
+        private final Strategy strategy = new RandomStrategy();
+        private final Player player;
+        private final Player opponent = new Player(false, "Computer");
+        private final CountDownLatch ready;
+        private final CountDownLatch go;
+        final LatencyHistogram latencies = new LatencyHistogram();
+        int gamesPlayed;
+        int errors;
+
+        Bot(int id, int port, GameMode[] modes, int numGames, CountDownLatch ready, CountDownLatch go){
+            this.port = port;
+            this.name = "bot" + id;
+            this.modes = modes;
+            this.numGames = numGames;
+            this.rand = new SplittableRandom(id);
+            this.player = new Player(true, name);
+            this.ready = ready;
+            this.go = go;
+        }
+
+        public void run(){
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+                socket.setTcpNoDelay(true);
+                socket.setSoTimeout(READ_TIMEOUT_MILLIS);
+                BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+                in.readLine(); //WELCOME
+                ready.countDown();
+                go.await();
+
+                for (int game = 0; game < numGames; game++){
+                    GameMode gameMode = modes[game % modes.length];
+                    out.write("PLAY " + GameMode.modeToString(gameMode).toLowerCase() + " " + name + "\n");
+                    out.flush();
+                    if (!playGame(in, out)){
+                        errors++;
+                        break; //the server refused a request; don't guess what state the bot is in
+                    }
+                    gamesPlayed++;
+                }
+                out.write("QUIT\n");
+                out.flush();
+            }
+            catch (IOException | InterruptedException e){
+                errors++;
+                ready.countDown();
+            }
+        }
+
+        /**
+         * Plays one game after its PLAY has been sent.
+         * @return (boolean) true once the game is over, false if the server answered with an ERROR
+         * @throws IOException if the connection closes or the server doesn't answer in time
+         */
+        private boolean playGame(BufferedReader in, Writer out) throws IOException {
+            long askedAt = 0;
+            String line;
+            while ((line = in.readLine()) != null){
+                if (line.startsWith("ERROR")){
+                    return false; //a failed request: no latency, and no answer will follow
+                }
+                if (askedAt != 0){
+                    latencies.record(System.nanoTime() - askedAt);
+                    askedAt = 0;
+                }
+                if (line.startsWith("YOURTURN")){
+                    player.setHand(parseCards(line));
+                    Rank rank = strategy.chooseRank(player, opponent, rand);
+                    askedAt = System.nanoTime();
+                    out.write("ASK " + Rank.rankToAbbrev(rank) + "\n");
+                    out.flush();
+                }
+                else if (line.startsWith("GAMEOVER") || line.startsWith("LEFT")){
+                    return true;
+                }
+            }
+            throw new IOException("server closed the connection");
+        }
+    }
+
+    /**
+     * @param line (String) a protocol line listing cards, e.g. "YOURTURN AS 10H"
+     * @return (long) a mask of the cards' indexes
+     */
+    static long parseCards(String line){
+        String[] words = line.split(" ");
+        long cards = 0;
+        for (int i = 1; i < words.length; i++){
+            String word = words[i];
+            Rank rank = GoFish.parseRank(word.substring(0, word.length() - 1));
+            Suit suit = parseSuit(word.charAt(word.length() - 1));
+            cards |= 1L << Card.indexOf(rank, suit);
+        }
+        return cards;
+    }
+
+    private static Suit parseSuit(char suit){
+        for (Suit value : Suit.values()){
+            if (Suit.suitToChar(value) == suit){
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Not a suit: " + suit);
+    }
+
+
+    public static void main(String[] args) throws Exception {
+        int numClients = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int gamesPerClient = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        String mode = args.length > 2 ? args[2] : "both";
+        GameMode[] modes = mode.equals("all") ? GameMode.values()
+                : mode.equals("both") ? new GameMode[]{GameMode.PAIRS, GameMode.BOOKS}
+                : GoFish.parseGameMode(mode) != null ? new GameMode[]{GoFish.parseGameMode(mode)}
+                : null;
+        if (modes == null){
+            System.err.println("usage: java LoadGenerator [clients] [games per client] [pairs|books|singles|threes|both|all] [port]");
+            return;
+        }
+
+        GoFishServer server = null;
+        int port;
+        if (args.length > 3){
+            port = Integer.parseInt(args[3]);
+        }
+        else{
+            server = new GoFishServer(0);
+            server.start();
+            port = server.getPort();
+        }
+
+        CountDownLatch ready = new CountDownLatch(numClients);
+        CountDownLatch go = new CountDownLatch(1);
+        Bot[] bots = new Bot[numClients];
+        Thread[] threads = new Thread[numClients];
+        for (int i = 0; i < numClients; i++){
+            bots[i] = new Bot(i, port, modes, gamesPerClient, ready, go);
+            threads[i] = new Thread(bots[i], bots[i].name);
+            threads[i].start();
+        }
+        ready.await();
+
+        long startTime = System.nanoTime();
+        go.countDown();
+        for (Thread thread : threads){
+            thread.join();
+        }
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+
+        LatencyHistogram latencies = new LatencyHistogram();
+        long games = 0;
+        long errors = 0;
+        for (Bot bot : bots){
+            latencies.merge(bot.latencies);
+            games += bot.gamesPlayed;
+            errors += bot.errors;
+        }
+
+        System.out.printf("%d clients, %d games (%s) in %.2f s, %d errors%n", numClients, games, mode, seconds, errors);
+        System.out.printf("throughput: %.0f games/s, %.0f asks/s%n", games / seconds, latencies.getCount() / seconds);
+        System.out.printf("ask latency: p50 %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f us, mean %.1f us%n",
+                latencies.getValueAtPercentile(50) / 1e3, latencies.getValueAtPercentile(99) / 1e3,
+                latencies.getValueAtPercentile(99.9) / 1e3, latencies.getMax() / 1e3, latencies.getMean() / 1e3);
+
+        if (server != null){
+            server.close();
+        }
+    }
+}
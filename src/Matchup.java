@@ -0,0 +1,216 @@
+/**
+ * The results so far of one strategy against another over mirrored deals: every deal is played twice, once with
+ * each strategy going first, so the luck of the cards and the first player's advantage (about 10% of games in
+ * pairs) cancel out and far fewer games are needed to tell two strategies apart.
+ *
+ * The unit of evidence is the deal, not the game. The first strategy scores 0, 1/2 or 1 point per game
+ * (loss, draw, win), so 0 to 2 points per deal, and the counts of each outcome (the pentanomial) are all that is
+ * kept. The mean and variance of the points per deal give the score, the Elo difference with a 95% confidence
+ * interval, and the log-likelihood ratio of a sequential probability ratio test (SPRT), using the normal
+ * approximation of the generalized SPRT: LLR = N (s1 - s0) (2 mean - s0 - s1) / (2 variance).
+ *
+ * Like TournamentStats, a Matchup is not thread-safe: each worker fills its own and they are merged.
+ */
+public class Matchup {
+    private static final double Z95 = 1.959964;
+
+    private final GameMode gameMode;
+    private final String first;
+    private final String second;
+    private final long[] deals = new long[5]; //deals by the first strategy's points over both games, in half points
+    private long wins;
+    private long draws;
+    private long losses;
+
+    /**
+     * @param gameMode (GameMode) the rules the games are played by
+     * @param first (String) the strategy whose results these are
+     * @param second (String) its opponent
+     */
+    public Matchup(GameMode gameMode, String first, String second){
+        this.gameMode = gameMode;
+        this.first = first;
+        this.second = second;
+    }
+
+    /**
+     * Adds the two games of one deal.
+     * @param firstSeated (GameResult) the game the first strategy went first in
+     * @param secondSeated (GameResult) the same deal with the second strategy going first
+     */
+    public void add(GameResult firstSeated, GameResult secondSeated){
+        int halves = halfPoints(firstSeated.getScore(0), firstSeated.getScore(1))
+                + halfPoints(secondSeated.getScore(1), secondSeated.getScore(0));
+        deals[halves]++;
+    }
+
+    /**
+     * Counts one game and returns the first strategy's points in it, in half points.
+     */
+    private int halfPoints(int score, int opponentScore){
+        if (score > opponentScore){
+            wins++;
+            return 2;
+        }
+        else if (score < opponentScore){
+            losses++;
+            return 0;
+        }
+        draws++;
+        return 1;
+    }
+
+    /**
+     * Adds another worker's deals to these.
+     * @param other (Matchup) the results to merge in, between the same strategies
+     */
+    public void merge(Matchup other){
+        for (int i = 0; i < deals.length; i++){
+            deals[i] += other.deals[i];
+        }
+        wins += other.wins;
+        draws += other.draws;
+        losses += other.losses;
+    }
+
+    public GameMode getGameMode(){
+        return gameMode;
+    }
+
+    /**
+     * @param player (int) 0 for the strategy whose results these are, 1 for its opponent
+     * @return (String) the strategy's name
+     */
+    public String getStrategy(int player){
+        return player == 0 ? first : second;
+    }
+
+    /**
+     * @return (long) the number of deals played, each of them twice
+     */
+    public long getDeals(){
+        long total = 0;
+        for (long count : deals){
+            total += count;
+        }
+        return total;
+    }
+
+    public long getGames(){
+        return 2 * getDeals();
+    }
+
+    /**
+     * @param player (int) 0 for the strategy whose results these are, 1 for its opponent
+     * @return (long) the number of games the strategy won
+     */
+    public long getWins(int player){
+        return player == 0 ? wins : losses;
+    }
+
+    public long getDraws(){
+        return draws;
+    }
+
+    /**
+     * @return (double) the first strategy's points per game, from 0 to 1 (a draw is half a point)
+     */
+    public double getScore(){
+        long n = getDeals();
+        if (n == 0){
+            return 0.5;
+        }
+        double total = 0;
+        for (int halves = 0; halves < deals.length; halves++){
+            total += deals[halves] * halves / 4.0;
+        }
+        return total / n;
+    }
+
+    /**
+     * @return (double) the variance of the first strategy's points per game over a deal
+     */
+    private double getDealVariance(){
+        long n = getDeals();
+        if (n < 2){
+            return 0;
+        }
+        double mean = getScore();
+        double squares = 0;
+        for (int halves = 0; halves < deals.length; halves++){
+            double d = halves / 4.0 - mean;
+            squares += deals[halves] * d * d;
+        }
+        return squares / (n - 1);
+    }
+
+    /**
+     * @return (double) how much stronger the first strategy is, in Elo
+     */
+    public double getElo(){
+        return elo(getScore());
+    }
+
+    /**
+     * @return (double) the lower end of the 95% confidence interval of getElo()
+     */
+    public double getEloLow(){
+        return elo(getScore() - Z95 * getStandardError());
+    }
+
+    /**
+     * @return (double) the upper end of the 95% confidence interval of getElo()
+     */
+    public double getEloHigh(){
+        return elo(getScore() + Z95 * getStandardError());
+    }
+
+    private double getStandardError(){
+        long n = getDeals();
+        return n < 2 ? 0.5 : Math.sqrt(getDealVariance() / n);
+    }
+
+    /**
+     * The log-likelihood ratio of "the first strategy is elo1 stronger" against "it is elo0 stronger".
+     * @param elo0 (double) the Elo difference of the null hypothesis
+     * @param elo1 (double) the Elo difference of the alternative, more than elo0
+     * @return (double) the evidence for elo1 over elo0 so far; 0 before there is any
+     */
+    public double getLlr(double elo0, double elo1){
+        long n = getDeals();
+        double variance = getDealVariance();
+        if (n < 2){
+            return 0;
+        }
+        if (variance == 0){ //every deal came out the same, e.g. the first strategy won them all
+            variance = 1e-9;
+        }
+        double s0 = expectedScore(elo0);
+        double s1 = expectedScore(elo1);
+        return n * (s1 - s0) * (2 * getScore() - s0 - s1) / (2 * variance);
+    }
+
+    /**
+     * @param elo (double) an Elo difference
+     * @return (double) the points per game a player that much stronger expects to score
+     */
+    public static double expectedScore(double elo){
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    /**
+     * @param score (double) points per game, from 0 to 1
+     * @return (double) the Elo difference that expects that score, held between -1200 and 1200
+     */
+    public static double elo(double score){
+        double p = Math.min(0.999, Math.max(0.001, score));
+        return -400 * Math.log10(1 / p - 1);
+    }
+
+    public String toString(){
+        return GameMode.modeToString(gameMode) + ": " + first + " vs " + second
+                + String.format(", %+.0f Elo (%+.0f to %+.0f)", getElo(), getEloLow(), getEloHigh())
+                + ", " + getGames() + " games on " + getDeals() + " deals: "
+                + wins + " wins, " + losses + " losses, " + draws + " draws";
+    }
+}
@@ -0,0 +1,329 @@
+/**
+ * A computer player that searches: for each rank it could ask for, it plays out many possible futures
+ * and asks for the rank that wins most often (information-set Monte Carlo tree search, searching the first move).
+ *
+ * The opponent's hand and the deck order are hidden, so every playout starts from a different "determinization":
+ * the unseen cards are dealt at random into an opponent hand of the right size and a deck, consistent with what
+ * has been seen (CardCountingStrategy tracks the ranks the opponent must hold or has just denied having).
+ * Each playout then finishes the game with RandomStrategy players on a silent GoFish, so the search uses
+ * exactly the same rules as the real game; once only a few cards are left in the deck, EndgameSolver plays
+ * the sampled game out perfectly instead, or an EndgameTablebase looks the result up (falling back on the solver
+ * for a sample the table doesn't hold). Moves are picked with UCB1, and the rank played out most is chosen.
+ *
+ * The search runs on several threads until a time budget (and optionally a playout limit) runs out.
+ * Each thread keeps its own statistics, Deck and Players, and a generator split from the game's, and their counts
+ * are added up at the end.
+ * With a time budget the choice depends on how fast the machine is; use a playout limit and one thread
+ * for reproducible games.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+public class MctsStrategy extends CardCountingStrategy {
+    private static final Rank[] RANKS = Rank.values();
+    private static final double EXPLORATION = 0.7;
+    //a playout that goes on this many steps is counted as a draw; sampled hands that can't occur could loop forever
+    private static final int MAX_PLAYOUT_STEPS = 2000;
+    //with this few cards left in the deck, a sampled game is finished by EndgameSolver instead of random play
+    private static final int ENDGAME_DECK_SIZE = 6;
+
+    private final long budgetNanos;
+    private final int maxPlayouts;
+    private final int threads;
+    private final EndgameTablebase tablebase;
+
+    /**
+     * Searches for 5 ms per move on every core.
+     */
+    public MctsStrategy(){
+        this(5_000_000L, 0, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param budgetNanos (long) how long to search for each move in nanoseconds, or 0 for no limit
+     * @param maxPlayouts (int) the most playouts per move across all threads, or 0 for no limit
+     * @param threads (int) how many threads search at once
+     */
+    public MctsStrategy(long budgetNanos, int maxPlayouts, int threads){
+        this(budgetNanos, maxPlayouts, threads, null);
+    }
+
+    /**
+     * @param budgetNanos (long) how long to search for each move in nanoseconds, or 0 for no limit
+     * @param maxPlayouts (int) the most playouts per move across all threads, or 0 for no limit
+     * @param threads (int) how many threads search at once
+     * @param tablebase (EndgameTablebase) solved endgames for the game's rules to finish sampled games with, or null
+     */
+    public MctsStrategy(long budgetNanos, int maxPlayouts, int threads, EndgameTablebase tablebase){
+        this.budgetNanos = budgetNanos;
+        this.maxPlayouts = maxPlayouts;
+        if (budgetNanos == 0 && maxPlayouts == 0){
+            throw new IllegalArgumentException("MCTS needs a time budget or a playout limit");
+        }
+        this.threads = Math.max(1, threads);
+        this.tablebase = tablebase;
+    }
+
+    public String getName(){
+        return "MCTS";
+    }
+
+    public Rank chooseRank(Player player, Player opponent, SplittableRandom rand){
+        int distinct = 0;
+        Rank only = null;
+        for (Rank rank : RANKS){
+            if (player.hasRank(rank)){
+                if (getOpponentHolds(rank) > 0){
+                    return super.chooseRank(player, opponent, rand); //a sure thing; no need to search
+                }
+                distinct++;
+                only = rank;
+            }
+        }
+        if (distinct == 1){
+            return only;
+        }
+
+        Knowledge knowledge = new Knowledge(player, opponent);
+        long deadline = budgetNanos == 0 ? Long.MAX_VALUE : System.nanoTime() + budgetNanos;
+        int playoutsEach = maxPlayouts == 0 ? Integer.MAX_VALUE : Math.max(1, maxPlayouts / threads);
+
+        List<Search> searches = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++){
+            searches.add(new Search(knowledge, rand.split(), deadline, playoutsEach));
+        }
+        if (threads == 1){
+            searches.get(0).call();
+        }
+        else{
+            try {
+                for (Future<Search> done : ForkJoinPool.commonPool().invokeAll(searches)){
+                    done.get();
+                }
+            }
+            catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+            }
+            catch (ExecutionException e){
+                throw new IllegalStateException("MCTS playout failed", e.getCause());
+            }
+        }
+
+        Rank best = null;
+        long bestVisits = -1;
+        for (Rank rank : RANKS){
+            if (!player.hasRank(rank)){
+                continue;
+            }
+            long visits = 0;
+            for (Search search : searches){
+                visits += search.visits[rank.ordinal()];
+            }
+            if (visits > bestVisits){
+                best = rank;
+                bestVisits = visits;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Everything the player knows at the moment it chooses, shared read-only by the searching threads.
+     */
+    private final class Knowledge {
+        final GameMode gameMode = getGameMode();
+        final long myHand;
+        final int opponentHandSize;
+        final int myScore;
+        final int opponentScore;
+        final int[] unseen; //indexes of the cards that are in the opponent's hand or the deck
+        final int[] mustHold = new int[13]; //how many of each rank the opponent's hand needs
+        final boolean[] denied = new boolean[13];
+        final int cap; //the most cards of one rank the opponent can hold
+
+        Knowledge(Player player, Player opponent){
+            myHand = player.getHandMask();
+            opponentHandSize = opponent.getHandSize();
+            myScore = gameMode.getRules().getScore(player);
+            opponentScore = gameMode.getRules().getScore(opponent);
+            cap = gameMode.getRules().getSetSize() - 1;
+
+            //which suits of a rank have been paired off isn't always seen, but suits don't matter to the rules,
+            //so the unseen cards of a rank are taken to be the lowest suits not in our hand
+            int[] cards = new int[52];
+            int count = 0;
+            for (Rank rank : RANKS){
+                int r = rank.ordinal();
+                int unseenOfRank = 4 - player.countRank(rank) - getOutOfPlay(rank);
+                for (int suit = 0; suit < 4 && unseenOfRank > 0; suit++){
+                    int index = r * 4 + suit;
+                    if ((myHand & (1L << index)) == 0){
+                        cards[count++] = index;
+                        unseenOfRank--;
+                    }
+                }
+                mustHold[r] = Math.min(getOpponentHolds(rank), cap);
+                denied[r] = isOpponentDenied(rank);
+            }
+            unseen = Arrays.copyOf(cards, count);
+        }
+    }
+
+    /**
+     * One thread's share of the search: UCB1 over the first move, random playouts after it.
+     */
+    private final class Search implements Callable<Search> {
+        private final Knowledge knowledge;
+        private final SplittableRandom rand;
+        private final long deadline;
+        private final int maxPlayouts;
+        final long[] visits = new long[13];
+        private final double[] wins = new double[13];
+
+        private final Deck deck = new Deck();
+        private final Player me = new Player("Me", new RandomStrategy());
+        private final Player opponent = new Player("Opponent", new RandomStrategy());
+        private final Player[] players = {me, opponent};
+        private final int[] pool;
+        private final int[] held = new int[13];
+        private final EndgameSolver solver = new EndgameSolver(16);
+
+        Search(Knowledge knowledge, SplittableRandom rand, long deadline, int maxPlayouts){
+            this.knowledge = knowledge;
+            this.rand = rand;
+            this.deadline = deadline;
+            this.maxPlayouts = maxPlayouts;
+            this.pool = knowledge.unseen.clone();
+        }
+
+        public Search call(){
+            long total = 0;
+            do {
+                Rank move = selectMove(total);
+                double result = playout(move);
+                visits[move.ordinal()]++;
+                wins[move.ordinal()] += result;
+                total++;
+            } while (total < maxPlayouts && (deadline == Long.MAX_VALUE || System.nanoTime() < deadline));
+            return this;
+        }
+
+        private Rank selectMove(long total){
+            Rank best = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            double logTotal = Math.log(Math.max(1, total));
+            for (Rank rank : RANKS){
+                if ((knowledge.myHand & (0xFL << (rank.ordinal() * 4))) == 0){
+                    continue;
+                }
+                long n = visits[rank.ordinal()];
+                if (n == 0){
+                    return rank;
+                }
+                double value = wins[rank.ordinal()] / n + EXPLORATION * Math.sqrt(logTotal / n);
+                if (value > bestValue){
+                    best = rank;
+                    bestValue = value;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Deals the unseen cards into a possible opponent hand and deck, then plays the game out.
+         * @return (double) 1 for a win, 0.5 for a draw, 0 for a loss
+         */
+        private double playout(Rank move){
+            //shuffle the unseen cards
+            for (int i = pool.length - 1; i > 0; i--){
+                int j = rand.nextInt(i + 1);
+                int card = pool[i];
+                pool[i] = pool[j];
+                pool[j] = card;
+            }
+
+            //give the opponent the ranks they must have, then fill their hand, avoiding ranks they denied if possible
+            Arrays.fill(held, 0);
+            long hand = 0;
+            int need = knowledge.opponentHandSize;
+            for (int pass = 0; pass < 4 && need > 0; pass++){
+                for (int i = 0; i < pool.length && need > 0; i++){
+                    int card = pool[i];
+                    int r = card >> 2;
+                    if ((hand & (1L << card)) != 0){
+                        continue;
+                    }
+                    boolean take;
+                    switch (pass) {
+                        case 0: take = held[r] < knowledge.mustHold[r]; break;
+                        case 1: take = held[r] < knowledge.cap && !knowledge.denied[r]; break;
+                        case 2: take = held[r] < knowledge.cap; break;
+                        default: take = true; break;
+                    }
+                    if (take){
+                        hand |= 1L << card;
+                        held[r]++;
+                        need--;
+                    }
+                }
+            }
+
+            //the rest of the unseen cards are the deck, in shuffled order
+            int deckSize = 0;
+            for (int card : pool){
+                if ((hand & (1L << card)) == 0){
+                    pool[deckSize++] = card;
+                }
+            }
+            deck.setCards(pool, deckSize);
+            me.setHand(knowledge.myHand);
+            opponent.setHand(hand);
+            int myStart = score(me);
+            int opponentStart = score(opponent);
+
+            GoFish game = GoFish.fromPosition(knowledge.gameMode, rand.nextLong(), players, deck, 0);
+            int mine;
+            int theirs;
+            boolean inTablebase = tablebase != null && tablebase.getGameMode() == knowledge.gameMode
+                    && Long.bitCount(knowledge.myHand) + knowledge.unseen.length <= tablebase.getMaxCards();
+            if (inTablebase || deckSize <= ENDGAME_DECK_SIZE && GameState.supports(knowledge.gameMode)){ //play the rest of this sample perfectly instead of at random
+                GameState state = GameState.of(game);
+                GameState next = state.apply(move);
+                int later = inTablebase ? tablebase.value(next) : -1;
+                if (later < 0){ //not in the table: e.g. a sample handing the opponent more of a rank than it enumerates
+                    later = solver.solve(next);
+                }
+                int myGain = next.getScore(0) - state.getScore(0)
+                        + (next.getCurrentPlayer() == 0 ? later : EndgameSolver.remainingPoints(next) - later);
+                mine = knowledge.myScore + myGain;
+                theirs = knowledge.opponentScore + EndgameSolver.remainingPoints(state) - myGain;
+            }
+            else{
+                game.askFor(move);
+                for (int steps = 0; !game.isGameOver() && steps < MAX_PLAYOUT_STEPS; steps++){
+                    game.step();
+                }
+                if (!game.isGameOver()){
+                    System.arraycopy(knowledge.unseen, 0, pool, 0, pool.length);
+                    return 0.5;
+                }
+                mine = knowledge.myScore + score(me) - myStart;
+                theirs = knowledge.opponentScore + score(opponent) - opponentStart;
+            }
+
+            System.arraycopy(knowledge.unseen, 0, pool, 0, pool.length); //refill the pool for the next shuffle
+            return mine > theirs ? 1 : mine == theirs ? 0.5 : 0;
+        }
+
+        private int score(Player player){
+            return knowledge.gameMode.getRules().getScore(player);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/**
+ * Records how games play out into a MetricsRegistry, labelled by rules (mode="pairs", "books", "singles" or "threes"):
+ *
+ *   gofish_games_total, gofish_turns_total, gofish_asks_total, gofish_asks_successful_total  counters
+ *   gofish_fish_draws_total, gofish_fish_empty_total   draws from the deck, and fishing in an empty deck
+ *   gofish_points_total{seat="1"|"2"}                   pairs or books made by each seat, starting ones included
+ *   gofish_turns_per_game, gofish_game_duration_ns      per game
+ *   gofish_ask_success_percent                          per game: successful asks out of all asks
+ *   gofish_points_per_game{seat="1"|"2"}                per game
+ *   gofish_asks_per_turn, gofish_streak_length          per turn: asks, and successful asks in a row
+ *
+ * The registry can be shared by every thread, but a listener keeps the state of the game it is watching,
+ * so each thread (or each game played at the same time) needs its own listener.
+ */
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class MetricsListener implements GameEventListener {
+    private final Metrics[] byMode = new Metrics[GameMode.values().length];
+    private Metrics metrics;
+    private GameMode gameMode;
+    private Player[] players;
+
+    //the game and turn being watched
+    private long startNanos;
+    private int turns;
+    private int asks;
+    private int successfulAsks;
+    private int turnAsks;
+    private int streak;
+
+    /**
+     * @param registry (MetricsRegistry) where to record; usually shared by every listener
+     */
+    public MetricsListener(MetricsRegistry registry){
+        for (GameMode mode : GameMode.values()){
+            byMode[mode.ordinal()] = new Metrics(registry, "{mode=\"" + GameMode.modeToString(mode).toLowerCase() + "\"");
+        }
+    }
+
+    /**
+     * The metrics of one mode, looked up once so recording doesn't search the registry.
+     */
+    private static final class Metrics {
+        final LongAdder games;
+        final LongAdder turns;
+        final LongAdder asks;
+        final LongAdder successfulAsks;
+        final LongAdder fishDraws;
+        final LongAdder fishEmpty;
+        final LongAdder[] points = new LongAdder[2];
+        final StripedHistogram turnsPerGame;
+        final StripedHistogram gameDuration;
+        final StripedHistogram askSuccessPercent;
+        final StripedHistogram[] pointsPerGame = new StripedHistogram[2];
+        final StripedHistogram asksPerTurn;
+        final StripedHistogram streakLength;
+
+        /**
+         * @param labels (String) the opening brace and labels, without the closing brace
+         */
+        Metrics(MetricsRegistry registry, String labels){
+            games = registry.counter("gofish_games_total" + labels + "}");
+            turns = registry.counter("gofish_turns_total" + labels + "}");
+            asks = registry.counter("gofish_asks_total" + labels + "}");
+            successfulAsks = registry.counter("gofish_asks_successful_total" + labels + "}");
+            fishDraws = registry.counter("gofish_fish_draws_total" + labels + "}");
+            fishEmpty = registry.counter("gofish_fish_empty_total" + labels + "}");
+            turnsPerGame = registry.histogram("gofish_turns_per_game" + labels + "}");
+            gameDuration = registry.histogram("gofish_game_duration_ns" + labels + "}");
+            askSuccessPercent = registry.histogram("gofish_ask_success_percent" + labels + "}");
+            asksPerTurn = registry.histogram("gofish_asks_per_turn" + labels + "}");
+            streakLength = registry.histogram("gofish_streak_length" + labels + "}");
+            for (int seat = 0; seat < 2; seat++){
+                points[seat] = registry.counter("gofish_points_total" + labels + ",seat=\"" + (seat + 1) + "\"}");
+                pointsPerGame[seat] = registry.histogram("gofish_points_per_game" + labels + ",seat=\"" + (seat + 1) + "\"}");
+            }
+        }
+    }
+
+    public void gameStarted(GameMode gameMode, Player[] players){
+        metrics = byMode[gameMode.ordinal()];
+        this.gameMode = gameMode;
+        this.players = players;
+        startNanos = System.nanoTime();
+        turns = 0;
+        asks = 0;
+        successfulAsks = 0;
+        turnAsks = 0;
+        streak = 0;
+        metrics.games.increment();
+    }
+
+    public void startingPair(Player player, Card card1, Card card2){
+        point(player);
+    }
+
+    public void startingBook(Player player, Rank rank){
+        point(player);
+    }
+
+    public void asked(Player current, Player opponent, Rank rank){
+        asks++;
+        turnAsks++;
+        metrics.asks.increment();
+    }
+
+    public void handedOver(Player current, Player opponent, Rank rank, long cards){
+        successfulAsks++;
+        streak++;
+        metrics.successfulAsks.increment();
+    }
+
+    public void cardDrawn(Player player, Card card){
+        metrics.fishDraws.increment();
+    }
+
+    public void deckEmpty(Player player){
+        metrics.fishEmpty.increment();
+    }
+
+    public void pairMade(Player player, Rank rank){
+        point(player);
+    }
+
+    public void bookMade(Player player, Rank rank){
+        point(player);
+    }
+
+    private void point(Player player){
+        metrics.points[player == players[0] ? 0 : 1].increment();
+    }
+
+    public void turnEnded(Player player){
+        turns++;
+        metrics.turns.increment();
+        metrics.asksPerTurn.record(turnAsks);
+        metrics.streakLength.record(streak);
+        turnAsks = 0;
+        streak = 0;
+    }
+
+    public void gameOver(Player[] players, Player winner){
+        metrics.turnsPerGame.record(turns);
+        metrics.gameDuration.record(System.nanoTime() - startNanos);
+        if (asks > 0){
+            metrics.askSuccessPercent.record(Math.round(100.0 * successfulAsks / asks));
+        }
+        for (int seat = 0; seat < 2; seat++){
+            Player player = players[seat];
+            metrics.pointsPerGame[seat].record(gameMode.getRules().getScore(player));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/**
+ * Named counters and histograms shared by every thread of a process, for instrumenting games while they run.
+ * Counters are LongAdders and histograms are StripedHistograms, so recording takes no locks and stays cheap
+ * under heavy parallel simulation. Look a metric up once (e.g. when a listener is created) and keep the
+ * reference; the lookup itself goes through a ConcurrentHashMap.
+ *
+ * A name may carry labels in braces, e.g. gofish_asks_total{mode="pairs"}, as in the text exposition format
+ * written by MetricsSnapshot.toText().
+ */
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class MetricsRegistry {
+    private final ConcurrentHashMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, StripedHistogram> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * @param name (String) the counter's name, with any labels
+     * @return (LongAdder) the counter, created at 0 the first time the name is used
+     */
+    public LongAdder counter(String name){
+        return counters.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    /**
+     * @param name (String) the histogram's name, with any labels
+     * @return (StripedHistogram) the histogram, created empty the first time the name is used
+     */
+    public StripedHistogram histogram(String name){
+        return histograms.computeIfAbsent(name, key -> new StripedHistogram());
+    }
+
+    /**
+     * Reads every metric. Recording can go on meanwhile; see StripedHistogram.snapshot().
+     * @return (MetricsSnapshot) the current values, sorted by name
+     */
+    public MetricsSnapshot snapshot(){
+        Map<String, Long> counterValues = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> counter : counters.entrySet()){
+            counterValues.put(counter.getKey(), counter.getValue().sum());
+        }
+        Map<String, LatencyHistogram> histogramValues = new TreeMap<>();
+        for (Map.Entry<String, StripedHistogram> histogram : histograms.entrySet()){
+            histogramValues.put(histogram.getKey(), histogram.getValue().snapshot());
+        }
+        return new MetricsSnapshot(counterValues, histogramValues);
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * The values of every metric in a MetricsRegistry at one moment, for reading in code or writing out as text.
+ *
+ * toText() uses the Prometheus text exposition format: one "name{labels} value" line per counter, and for each
+ * histogram a summary of its 50th, 90th and 99th percentiles (as quantile labels), sum and count. A summary can't
+ * hold a maximum, so each histogram's maximum is a gauge of its own, name_max, after all the summaries.
+ */
+
+import java.util.Collections;
+import java.util.Map;
+
+public class MetricsSnapshot {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    private final Map<String, Long> counters;
+    private final Map<String, LatencyHistogram> histograms;
+
+    MetricsSnapshot(Map<String, Long> counters, Map<String, LatencyHistogram> histograms){
+        this.counters = Collections.unmodifiableMap(counters);
+        this.histograms = Collections.unmodifiableMap(histograms);
+    }
+
+    /**
+     * @param name (String) the counter's name, with any labels
+     * @return (long) the counter's value, 0 if there is no such counter
+     */
+    public long getCounter(String name){
+        Long value = counters.get(name);
+        return value == null ? 0 : value;
+    }
+
+    /**
+     * @param name (String) the histogram's name, with any labels
+     * @return (LatencyHistogram) the histogram, or an empty one if there is no such histogram
+     */
+    public LatencyHistogram getHistogram(String name){
+        LatencyHistogram histogram = histograms.get(name);
+        return histogram == null ? new LatencyHistogram() : histogram;
+    }
+
+    public Map<String, Long> getCounters(){
+        return counters;
+    }
+
+    public Map<String, LatencyHistogram> getHistograms(){
+        return histograms;
+    }
+
+    /**
+     * @return (String) every metric in the text exposition format, sorted by name
+     */
+    public String toText(){
+        StringBuilder text = new StringBuilder();
+        String family = null;
+        for (Map.Entry<String, Long> counter : counters.entrySet()){
+            family = typeLine(text, family, counter.getKey(), "counter");
+            text.append(counter.getKey()).append(' ').append(counter.getValue()).append('\n');
+        }
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()){
+            String name = entry.getKey();
+            LatencyHistogram histogram = entry.getValue();
+            family = typeLine(text, family, name, "summary");
+            for (double quantile : QUANTILES){
+                text.append(withLabel(name, "", "quantile=\"" + quantile + "\"")).append(' ')
+                        .append(histogram.getValueAtPercentile(quantile * 100)).append('\n');
+            }
+            text.append(withLabel(name, "_sum", null)).append(' ').append(histogram.getTotal()).append('\n');
+            text.append(withLabel(name, "_count", null)).append(' ').append(histogram.getCount()).append('\n');
+        }
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()){
+            String max = withLabel(entry.getKey(), "_max", null);
+            family = typeLine(text, family, max, "gauge");
+            text.append(max).append(' ').append(entry.getValue().getMax()).append('\n');
+        }
+        return text.toString();
+    }
+
+    /**
+     * Writes a "# TYPE" line when a new metric family (name without labels) starts.
+     * @return (String) the family of this metric
+     */
+    private static String typeLine(StringBuilder text, String previous, String name, String type){
+        int brace = name.indexOf('{');
+        String family = brace < 0 ? name : name.substring(0, brace);
+        if (!family.equals(previous)){
+            text.append("# TYPE ").append(family).append(' ').append(type).append('\n');
+        }
+        return family;
+    }
+
+    /**
+     * @param name (String) a name with optional labels, e.g. turns{mode="pairs"}
+     * @param suffix (String) added to the name before the labels, e.g. "_sum"
+     * @param label (String) another label to add, or null
+     * @return (String) e.g. turns_sum{mode="pairs",quantile="0.5"}
+     */
+    private static String withLabel(String name, String suffix, String label){
+        int brace = name.indexOf('{');
+        String family = brace < 0 ? name : name.substring(0, brace);
+        String labels = brace < 0 ? "" : name.substring(brace + 1, name.length() - 1);
+        if (label != null){
+            labels = labels.isEmpty() ? label : labels + "," + label;
+        }
+        return family + suffix + (labels.isEmpty() ? "" : "{" + labels + "}");
+    }
+
+    public String toString(){
+        return toText();
+    }
+}
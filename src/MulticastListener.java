@@ -0,0 +1,118 @@
+/**
+ * Passes every event on to several listeners, in order.
+ */
+public class MulticastListener implements GameEventListener {
+    private final GameEventListener[] listeners;
+
+    public MulticastListener(GameEventListener... listeners){
+        this.listeners = listeners.clone();
+    }
+
+    public void gameStarted(GameMode gameMode, Player[] players){
+        for (GameEventListener listener : listeners){
+            listener.gameStarted(gameMode, players);
+        }
+    }
+
+    public void gameResumed(GameMode gameMode, Player[] players){
+        for (GameEventListener listener : listeners){
+            listener.gameResumed(gameMode, players);
+        }
+    }
+
+    public void cardDealt(Player player, Card card){
+        for (GameEventListener listener : listeners){
+            listener.cardDealt(player, card);
+        }
+    }
+
+    public void handsDealt(Player[] players){
+        for (GameEventListener listener : listeners){
+            listener.handsDealt(players);
+        }
+    }
+
+    public void startingPair(Player player, Card card1, Card card2){
+        for (GameEventListener listener : listeners){
+            listener.startingPair(player, card1, card2);
+        }
+    }
+
+    public void startingBook(Player player, Rank rank){
+        for (GameEventListener listener : listeners){
+            listener.startingBook(player, rank);
+        }
+    }
+
+    public void handsChecked(Player[] players){
+        for (GameEventListener listener : listeners){
+            listener.handsChecked(players);
+        }
+    }
+
+    public void turnStarted(Player player){
+        for (GameEventListener listener : listeners){
+            listener.turnStarted(player);
+        }
+    }
+
+    public void handEmpty(Player player){
+        for (GameEventListener listener : listeners){
+            listener.handEmpty(player);
+        }
+    }
+
+    public void asked(Player current, Player opponent, Rank rank){
+        for (GameEventListener listener : listeners){
+            listener.asked(current, opponent, rank);
+        }
+    }
+
+    public void handedOver(Player current, Player opponent, Rank rank, long cards){
+        for (GameEventListener listener : listeners){
+            listener.handedOver(current, opponent, rank, cards);
+        }
+    }
+
+    public void goFish(Player current, Player opponent, Rank rank){
+        for (GameEventListener listener : listeners){
+            listener.goFish(current, opponent, rank);
+        }
+    }
+
+    public void cardDrawn(Player player, Card card){
+        for (GameEventListener listener : listeners){
+            listener.cardDrawn(player, card);
+        }
+    }
+
+    public void deckEmpty(Player player){
+        for (GameEventListener listener : listeners){
+            listener.deckEmpty(player);
+        }
+    }
+
+    public void pairMade(Player player, Rank rank){
+        for (GameEventListener listener : listeners){
+            listener.pairMade(player, rank);
+        }
+    }
+
+    public void bookMade(Player player, Rank rank){
+        for (GameEventListener listener : listeners){
+            listener.bookMade(player, rank);
+        }
+    }
+
+    public void turnEnded(Player player){
+        for (GameEventListener listener : listeners){
+            listener.turnEnded(player);
+        }
+    }
+
+    public void gameOver(Player[] players, Player winner){
+        for (GameEventListener listener : listeners){
+            listener.gameOver(players, winner);
+        }
+    }
+}
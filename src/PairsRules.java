@@ -0,0 +1,50 @@
+/**
+ * The pairs gameplay: two cards of a rank make a pair, and the opponent hands over just one card
+ * of the rank asked for, which the current player pairs straight away with the one they hold.
+ */
+public final class PairsRules implements Rules {
+    private static final Rank[] RANKS = Rank.values();
+
+    public int getSetSize(){
+        return 2;
+    }
+
+    public int getMaxHandedOver(){
+        return 1;
+    }
+
+    public int getScore(Player player){
+        return player.getNumPairs();
+    }
+
+    public void checkStartingHand(Player player, GameEventListener listener){
+        for (Rank value : RANKS){
+            while (player.countRank(value) >= 2){ //a rank with 4 cards makes two pairs
+                long pair = player.removeRank(value, 2);
+
+                player.addPair();
+                listener.startingPair(player, Card.fromIndex(Long.numberOfTrailingZeros(pair)),
+                        Card.fromIndex(63 - Long.numberOfLeadingZeros(pair)));
+            }
+        }
+    }
+
+    public void handOver(Player current, Player opponent, Rank rank, long cards, GameEventListener listener){
+        current.addPair();
+        current.removeRank(rank, 1); //the card it pairs with
+        listener.handedOver(current, opponent, rank, cards);
+        listener.pairMade(current, rank);
+    }
+
+    public void draw(Player player, Card card, GameEventListener listener){
+        Rank value = card.getValue();
+        if (player.hasRank(value)) { //check just the last card against the rest for a pair
+            player.addPair();
+            player.removeRank(value, 1);
+            listener.pairMade(player, value);
+        }
+        else {
+            player.addCard(card);
+        }
+    }
+}
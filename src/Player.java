@@ -1,33 +1,159 @@
 import java.util.ArrayList;
+import java.util.Arrays;
 
 public class Player {
-    private ArrayList<Card> hand;
+    //the hand is a bit mask: bit (rank*4 + suit) is set when the player holds that card, see Card.getIndex()
+    private long hand;
+    //how many cards of each rank are in the hand, so rank questions don't need to look at the cards
+    private final int[] rankCounts = new int[13];
     private boolean isHuman;
     public String name;
     private int numPairs;
     private int numBooks;
+    private Strategy strategy;
 
     public Player(boolean isHuman, String name){
         this.isHuman = isHuman;
-        this.hand = new ArrayList<>();
+        this.hand = 0L;
         this.name = name;
         numPairs = 0;
     }
 
+    /**
+     * Creates a computer player that picks ranks using the given strategy.
+     * @param name (String) the player's name
+     * @param strategy (Strategy) how the player chooses which rank to ask for
+     */
+    public Player(String name, Strategy strategy){
+        this(false, name);
+        this.strategy = strategy;
+    }
+
     /**
      * Adds a Card to the player's hand.
      * @param newCard the Card which will be added.
      */
     public void addCard(Card newCard){
-        hand.add(newCard);
+        addCards(1L << newCard.getIndex());
     }
 
     /**
-     * Gets the player's current hand.
+     * Adds every card in the mask to the player's hand.
+     * @param cards (long) a mask of card indexes, as returned by removeRank
+     */
+    public void addCards(long cards){
+        hand |= cards;
+        while (cards != 0){
+            rankCounts[Long.numberOfTrailingZeros(cards) >> 2]++;
+            cards &= cards - 1;
+        }
+    }
+
+    /**
+     * Replaces the player's whole hand, e.g. to set up a position for a benchmark or a search.
+     * @param cards (long) a mask of card indexes
+     */
+    public void setHand(long cards){
+        hand = 0L;
+        Arrays.fill(rankCounts, 0);
+        addCards(cards);
+    }
+
+    /**
+     * Removes up to max cards of the given rank from the player's hand.
+     * @param rank (Rank) the rank to remove
+     * @param max (int) the most cards to remove: 1 for the pairs gameplay, 4 for all of them
+     * @return (long) a mask of the removed cards, 0 if the player had none
+     */
+    public long removeRank(Rank rank, int max){
+        int r = rank.ordinal();
+        long removed = hand & (0xFL << (r * 4));
+        int count = rankCounts[r];
+        for (int extra = count - max; extra > 0; extra--){
+            removed &= removed - 1; //leave the lowest suits in the hand
+        }
+        hand &= ~removed;
+        rankCounts[r] = count - Long.bitCount(removed);
+        return removed;
+    }
+
+    /**
+     * Removes one particular card from the player's hand.
+     * @param index (int) the card's index, see Card.getIndex()
+     * @return (boolean) true if the player held the card
+     */
+    public boolean removeCard(int index){
+        long card = 1L << index;
+        if ((hand & card) == 0){
+            return false;
+        }
+        hand &= ~card;
+        rankCounts[index >> 2]--;
+        return true;
+    }
+
+    /**
+     * @param rank (Rank) the rank to look for
+     * @return (boolean) true if the player holds at least one card of that rank
+     */
+    public boolean hasRank(Rank rank){
+        return rankCounts[rank.ordinal()] != 0;
+    }
+
+    /**
+     * @param rank (Rank) the rank to count
+     * @return (int) how many cards of that rank the player holds
+     */
+    public int countRank(Rank rank){
+        return rankCounts[rank.ordinal()];
+    }
+
+    /**
+     * @return hand (long) the player's hand as a mask of card indexes
+     */
+    public long getHandMask(){
+        return hand;
+    }
+
+    public int getHandSize(){
+        return Long.bitCount(hand);
+    }
+
+    public boolean isHandEmpty(){
+        return hand == 0L;
+    }
+
+    /**
+     * Gets a card from the hand by position, with the cards ordered by their index.
+     * @param pos (int) from 0 to getHandSize()-1
+     * @return (Card) the card at that position
+     */
+    public Card getCard(int pos){
+        return Card.fromIndex(cardIndexAt(pos));
+    }
+
+    /**
+     * @param pos (int) from 0 to getHandSize()-1
+     * @return (int) the index of the card at that position in the hand
+     */
+    public int cardIndexAt(int pos){
+        long cards = hand;
+        for (int i = 0; i < pos; i++){
+            cards &= cards - 1;
+        }
+        return Long.numberOfTrailingZeros(cards);
+    }
+
+    /**
+     * Gets the player's current hand as a list, for printing.
      * @return hand (ArrayList<Card>) the Cards in a player's hand
      */
     public ArrayList<Card> getHand(){
-        return hand;
+        ArrayList<Card> cards = new ArrayList<>(getHandSize());
+        for (long rest = hand; rest != 0; rest &= rest - 1){
+            cards.add(Card.fromIndex(Long.numberOfTrailingZeros(rest)));
+        }
+        return cards;
     }
 
     /**
@@ -44,6 +170,16 @@ public class Player {
         numBooks++;
     }
 
+    /**
+     * Sets both counters at once, e.g. when a saved game is restored.
+     * @param numPairs (int)
+     * @param numBooks (int)
+     */
+    public void setScores(int numPairs, int numBooks){
+        this.numPairs = numPairs;
+        this.numBooks = numBooks;
+    }
+
     /**
      * Returns the number of pairs in a player's hand.
      * @return numPairs (int) pairs in the player's hand.
@@ -66,18 +202,12 @@ public class Player {
     }
 
     /**
-     * Prints the player's hand as neat text.
-     * @param hand (ArrayList<Card>) The cards in the player's hand.
+     * @return strategy (Strategy) how a computer player chooses ranks, or null for a human player.
      */
-    public static void printHand(ArrayList<Card> hand){
-        Card card = hand.get(0);
-        System.out.print("\t[" + Rank.rankToAbbrev(card.getValue()) + Suit.suitToChar(card.getSuit()) );
-        for(int i=1; i<hand.size(); i++){
-            card = hand.get(i);
-            System.out.print( ", " + Rank.rankToAbbrev(card.getValue()) + Suit.suitToChar(card.getSuit()) );
-        }
-        System.out.print("]\n");
+    public Strategy getStrategy(){
+        return strategy;
     }
 
 
+
 }
@@ -0,0 +1,16 @@
+import java.util.SplittableRandom;
+
+/**
+ * The original computer player: asks for the value of a random card in its hand.
+ */
+public class RandomStrategy implements Strategy {
+
+    public Rank chooseRank(Player player, Player opponent, SplittableRandom rand){
+        int pos = rand.nextInt(player.getHandSize());
+        return Card.rankOf(player.cardIndexAt(pos));
+    }
+
+    public String getName(){
+        return "Random";
+    }
+}
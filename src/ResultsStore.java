@@ -0,0 +1,451 @@
+/**
+ * Compilation: javac ResultsStore.java
+ * Execution: java ResultsStore file [pairs|books|singles|threes] [strategy]
+ *
+ * An append-only file of game results, one fixed-width 16 byte record per game, written and read through
+ * memory-mapped NIO buffers so that tens of millions of games can be stored, scanned and aggregated without
+ * putting them on the heap.
+ *
+ * The file is a 1024 byte header (magic, version, record size, number of strategies, number of records, and a
+ * table of up to 60 strategy names), then the records:
+ *
+ *   0  long   seed
+ *   8  byte   rules (GameMode ordinal)
+ *   9  byte   first player's strategy, an index into the name table
+ *  10  byte   second player's strategy
+ *  11  byte   winner: 0 or 1, or -1 for a draw
+ *  12  byte   first player's score
+ *  13  byte   second player's score
+ *  14  short  turns
+ *
+ * Records are mapped in segments of a million, and the file grows a segment at a time.
+ * Writers reserve() a run of records and then write() each one, so the workers of a Tournament can fill in
+ * their own games at the same time without locking. The number of records in the header only moves on
+ * when flush() or close() is called, once the writers have finished, so a reader never sees a record
+ * that was reserved but not yet written.
+ *
+ * Running the class prints the totals of every mode and pair of strategies in a file, or of the games matching
+ * the given mode and strategy (played by either player).
+ */
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+public final class ResultsStore implements AutoCloseable {
+    private static final GameMode[] MODES = GameMode.values();
+    private static final int MAGIC = 0x47465253; //"GFRS"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 1024;
+    private static final int RECORD_BYTES = 16;
+    private static final int NAMES_AT = 64;
+    private static final int NAME_BYTES = 16; //a length byte and up to 15 bytes of UTF-8
+    private static final int MAX_STRATEGIES = (HEADER_BYTES - NAMES_AT) / NAME_BYTES;
+    private static final int SEGMENT_SHIFT = 20;
+    private static final int SEGMENT_RECORDS = 1 << SEGMENT_SHIFT;
+    private static final long SEGMENT_BYTES = (long) SEGMENT_RECORDS * RECORD_BYTES;
+
+    private final FileChannel channel;
+    private final boolean writable;
+    private final MappedByteBuffer header;
+    private final String[] strategies = new String[MAX_STRATEGIES]; //guarded by this
+    private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+    private final AtomicLong reserved;
+    private volatile long size;
+
+    private ResultsStore(FileChannel channel, boolean writable) throws IOException {
+        this.channel = channel;
+        this.writable = writable;
+        boolean fresh = channel.size() == 0;
+        header = channel.map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+        if (fresh){
+            header.putInt(0, MAGIC);
+            header.putInt(4, VERSION);
+            header.putInt(8, RECORD_BYTES);
+            header.putLong(16, 0);
+        }
+        else if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION || header.getInt(8) != RECORD_BYTES){
+            throw new IllegalArgumentException("not a results file");
+        }
+        int count = header.getInt(12);
+        for (int id = 0; id < count; id++){
+            int at = NAMES_AT + id * NAME_BYTES;
+            byte[] name = new byte[header.get(at)];
+            for (int i = 0; i < name.length; i++){
+                name[i] = header.get(at + 1 + i);
+            }
+            strategies[id] = new String(name, StandardCharsets.UTF_8);
+        }
+        size = header.getLong(16);
+        reserved = new AtomicLong(size);
+    }
+
+    /**
+     * Opens a results file for appending, creating it if it doesn't exist.
+     * @param file (Path)
+     * @return (ResultsStore) the store; close() it to record how many games were written
+     * @throws IOException if the file cannot be opened
+     */
+    public static ResultsStore open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            return new ResultsStore(channel, true);
+        }
+        catch (IOException | RuntimeException e){
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a results file for scanning only. The store can be shared by any number of threads.
+     * @param file (Path) a file written by a ResultsStore
+     * @return (ResultsStore) the store
+     * @throws IOException if the file cannot be read
+     */
+    public static ResultsStore openReadOnly(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new ResultsStore(channel, false);
+        }
+        catch (IOException | RuntimeException e){
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return (long) the number of games stored, as of the last flush()
+     */
+    public long size(){
+        return size;
+    }
+
+    /**
+     * Looks up a strategy's index in the name table, adding it if it's new.
+     * @param name (String) the strategy's name, e.g. its StrategyRegistry name; at most 15 bytes of UTF-8 are kept
+     * @return (int) the strategy's index, to pass to write()
+     */
+    public synchronized int strategyId(String name){
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= NAME_BYTES){
+            bytes = Arrays.copyOf(bytes, NAME_BYTES - 1);
+            name = new String(bytes, StandardCharsets.UTF_8);
+        }
+        int count = header.getInt(12);
+        for (int id = 0; id < count; id++){
+            if (strategies[id].equals(name)){
+                return id;
+            }
+        }
+        if (count == MAX_STRATEGIES){
+            throw new IllegalStateException("a results file holds at most " + MAX_STRATEGIES + " strategies");
+        }
+        int at = NAMES_AT + count * NAME_BYTES;
+        header.put(at, (byte) bytes.length);
+        for (int i = 0; i < bytes.length; i++){
+            header.put(at + 1 + i, bytes[i]);
+        }
+        strategies[count] = name;
+        header.putInt(12, count + 1);
+        return count;
+    }
+
+    /**
+     * @param id (int) a strategy's index, as stored in a record
+     * @return (String) the strategy's name
+     */
+    public synchronized String strategyName(int id){
+        return strategies[id];
+    }
+
+    /**
+     * @param name (String) a strategy's name, ignoring case
+     * @return (int) the strategy's index, or -1 if no game in the file was played with it
+     */
+    public synchronized int findStrategy(String name){
+        for (int id = 0; id < header.getInt(12); id++){
+            if (strategies[id].equalsIgnoreCase(name)){
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Sets aside room for more games at the end of the file.
+     * @param games (long) how many records to reserve
+     * @return (long) the index of the first reserved record
+     */
+    public long reserve(long games){
+        if (!writable){
+            throw new IllegalStateException("results file is read-only");
+        }
+        return reserved.getAndAdd(games);
+    }
+
+    /**
+     * Writes one game into a reserved record. Different records can be written from different threads at once.
+     * @param record (long) the record's index, from reserve()
+     * @param result (GameResult) the finished game
+     * @param strategy1 (int) the first player's strategy, from strategyId()
+     * @param strategy2 (int) the second player's strategy, from strategyId()
+     */
+    public void write(long record, GameResult result, int strategy1, int strategy2){
+        if (record < 0 || record >= reserved.get()){
+            throw new IndexOutOfBoundsException("record " + record + " has not been reserved");
+        }
+        MappedByteBuffer segment = segment(record);
+        int at = (int) (record & (SEGMENT_RECORDS - 1)) * RECORD_BYTES;
+        segment.putLong(at, result.getSeed());
+        segment.put(at + 8, (byte) result.getGameMode().ordinal());
+        segment.put(at + 9, (byte) strategy1);
+        segment.put(at + 10, (byte) strategy2);
+        segment.put(at + 11, (byte) result.getWinner());
+        segment.put(at + 12, (byte) result.getScore(0));
+        segment.put(at + 13, (byte) result.getScore(1));
+        segment.putShort(at + 14, (short) result.getTurns());
+    }
+
+    /**
+     * Appends one game. Not for use while other threads are writing reserved records that haven't been flushed.
+     * @return (long) the game's record index
+     */
+    public long append(GameResult result, int strategy1, int strategy2){
+        long record = reserve(1);
+        write(record, result, strategy1, strategy2);
+        return record;
+    }
+
+    private MappedByteBuffer segment(long record){
+        int index = (int) (record >>> SEGMENT_SHIFT);
+        MappedByteBuffer[] mapped = segments;
+        if (index < mapped.length){
+            return mapped[index];
+        }
+        return mapSegments(index);
+    }
+
+    /**
+     * Maps every segment up to and including the given one, growing the file if it's writable.
+     */
+    private synchronized MappedByteBuffer mapSegments(int index){
+        MappedByteBuffer[] mapped = segments;
+        if (index >= mapped.length){
+            mapped = Arrays.copyOf(mapped, index + 1);
+            try {
+                for (int s = segments.length; s <= index; s++){
+                    long at = HEADER_BYTES + s * SEGMENT_BYTES;
+                    mapped[s] = writable ? channel.map(FileChannel.MapMode.READ_WRITE, at, SEGMENT_BYTES)
+                            : channel.map(FileChannel.MapMode.READ_ONLY, at, Math.min(SEGMENT_BYTES, channel.size() - at));
+                }
+            }
+            catch (IOException e){
+                throw new IllegalStateException("cannot map results file", e);
+            }
+            segments = mapped;
+        }
+        return mapped[index];
+    }
+
+    /**
+     * Makes every reserved record part of the file: writes the number of records into the header and forces
+     * everything to disk. Call it once the writers of the reserved records have finished.
+     * @throws IOException if the file can't be written
+     */
+    public synchronized void flush() throws IOException {
+        if (!writable){
+            return;
+        }
+        for (MappedByteBuffer segment : segments){
+            segment.force();
+        }
+        size = reserved.get();
+        header.putLong(16, size);
+        header.force();
+    }
+
+    public void close() throws IOException {
+        try {
+            flush();
+        }
+        finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * @return (Cursor) a cursor before the first stored game
+     */
+    public Cursor scan(){
+        return scan(0, size);
+    }
+
+    /**
+     * @param from (long) the index of the first record to visit
+     * @param to (long) the index after the last record to visit
+     * @return (Cursor) a cursor before the first record of the range
+     */
+    public Cursor scan(long from, long to){
+        return new Cursor(Math.max(from, 0), Math.min(to, size));
+    }
+
+    /**
+     * Adds up the stored games the filter accepts, reading them straight from the mapped file.
+     * @param filter (Predicate<Cursor>) tests the cursor, which is on the game being considered
+     * @return (TournamentStats) the totals of the accepted games
+     */
+    public TournamentStats aggregate(Predicate<Cursor> filter){
+        TournamentStats stats = new TournamentStats();
+        Cursor cursor = scan();
+        while (cursor.next()){
+            if (filter.test(cursor)){
+                stats.add(cursor.getScore(0), cursor.getScore(1), cursor.getTurns());
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * A position in the file. Each call to next() moves on to the next record, and the getters read that record
+     * from the mapped file, so scanning doesn't create an object per game. A cursor is not thread safe;
+     * give each thread its own.
+     */
+    public final class Cursor {
+        private final long end;
+        private long record;
+        private MappedByteBuffer segment;
+        private int at;
+
+        private Cursor(long from, long to){
+            record = from - 1;
+            end = to;
+        }
+
+        /**
+         * @return (boolean) true if the cursor moved on to another game, false once there are none left
+         */
+        public boolean next(){
+            if (record + 1 >= end){
+                record = end;
+                return false;
+            }
+            record++;
+            at = (int) (record & (SEGMENT_RECORDS - 1)) * RECORD_BYTES;
+            if (at == 0 || segment == null){
+                segment = segment(record);
+            }
+            return true;
+        }
+
+        /**
+         * @return (long) the index of the current record
+         */
+        public long getRecord(){
+            return record;
+        }
+
+        public long getSeed(){
+            return segment.getLong(at);
+        }
+
+        public GameMode getGameMode(){
+            return MODES[segment.get(at + 8)];
+        }
+
+        /**
+         * @param player (int) 0 for the first player, 1 for the second
+         * @return (int) the index of the player's strategy, see strategyName()
+         */
+        public int getStrategy(int player){
+            return segment.get(at + 9 + player);
+        }
+
+        /**
+         * @return (int) 0 or 1 for the winning player, or -1 if the game was a draw
+         */
+        public int getWinner(){
+            return segment.get(at + 11);
+        }
+
+        /**
+         * @param player (int) 0 for the first player, 1 for the second
+         * @return (int) the number of pairs or books the player made
+         */
+        public int getScore(int player){
+            return segment.get(at + 12 + player);
+        }
+
+        public int getTurns(){
+            return segment.getShort(at + 14);
+        }
+
+        /**
+         * @return (GameResult) the current game, as an object
+         */
+        public GameResult toResult(){
+            return new GameResult(getGameMode(), getSeed(), getScore(0), getScore(1), getTurns());
+        }
+    }
+
+    private static final String USAGE = "usage: java ResultsStore file [pairs|books|singles|threes] [strategy]";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1){
+            System.out.println(USAGE);
+            return;
+        }
+        try (ResultsStore store = openReadOnly(Paths.get(args[0]))){
+            if (args.length > 1){
+                GameMode mode = GoFish.parseGameMode(args[1]);
+                if (mode == null){
+                    System.out.println(USAGE);
+                    return;
+                }
+                int strategy = args.length > 2 ? store.findStrategy(args[2]) : -1;
+                if (args.length > 2 && strategy < 0){
+                    System.out.println("no games played by " + args[2]);
+                    return;
+                }
+                TournamentStats stats = store.aggregate(game -> game.getGameMode() == mode
+                        && (strategy < 0 || game.getStrategy(0) == strategy || game.getStrategy(1) == strategy));
+                System.out.println(GameMode.modeToString(mode) + (strategy < 0 ? "" : " with " + args[2]) + ": " + stats);
+                return;
+            }
+
+            //totals for each mode and pair of strategies
+            TournamentStats[][][] totals = new TournamentStats[MODES.length][MAX_STRATEGIES][MAX_STRATEGIES];
+            long startTime = System.nanoTime();
+            Cursor game = store.scan();
+            while (game.next()){
+                TournamentStats[] row = totals[game.getGameMode().ordinal()][game.getStrategy(0)];
+                int second = game.getStrategy(1);
+                if (row[second] == null){
+                    row[second] = new TournamentStats();
+                }
+                row[second].add(game.getScore(0), game.getScore(1), game.getTurns());
+            }
+            double seconds = (System.nanoTime() - startTime) / 1e9;
+            for (GameMode mode : MODES){
+                for (int first = 0; first < MAX_STRATEGIES; first++){
+                    for (int second = 0; second < MAX_STRATEGIES; second++){
+                        TournamentStats stats = totals[mode.ordinal()][first][second];
+                        if (stats != null){
+                            System.out.println(GameMode.modeToString(mode) + ": " + store.strategyName(first) + " vs "
+                                    + store.strategyName(second) + ", " + stats);
+                        }
+                    }
+                }
+            }
+            System.out.printf("%d games scanned in %.2f s%n", store.size(), seconds);
+        }
+    }
+}
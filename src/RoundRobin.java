@@ -0,0 +1,285 @@
+/**
+ * Compilation: javac RoundRobin.java
+ * Execution: java RoundRobin [max games] [threads] [pairs|books|singles|threes|both|all] [strategy ...]
+ *
+ * Ranks computer strategies by playing every pair of them against each other, in each game mode (pairs and books
+ * by default, "all" for every variant), and rates them in Elo. The strategies come from a StrategyRegistry
+ * (by default StrategyRegistry.standard()), and the command line can pick some of them by name.
+ *
+ * Each matchup plays mirrored deals (see Matchup): the same shuffle twice, with each strategy going first once.
+ * The deals are the same for every matchup, dealt from the round robin's seed as in Tournament, so the results
+ * don't depend on how many threads play them. Instead of a fixed number of games, a matchup stops as soon as a
+ * sequential probability ratio test decides whether the first strategy is ELO_BOUND stronger or weaker than the
+ * second (with 5% error each way), checking after every CHECK_DEALS deals, or when it reaches the most games
+ * allowed. Strategies hundreds of Elo apart are told apart in a few hundred games instead of tens of thousands.
+ *
+ * At the end, the ratings of every strategy in each mode are fitted to all of its matchups (Bradley-Terry, with
+ * one virtual drawn deal per matchup so that a strategy that never loses still gets a finite rating), with the
+ * first strategy at 0.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+public class RoundRobin {
+
+    //deals played between one check of the SPRT and the next; the same for any number of threads, so the checks
+    //and the results don't depend on it
+    private static final int CHECK_DEALS = 128;
+    //the deals of one check are split into this many batches per worker thread, so that they all keep busy
+    private static final int LEAVES_PER_THREAD = 4;
+    //the SPRT's error rates: deciding the first strategy is stronger when it isn't, and weaker when it isn't
+    private static final double ALPHA = 0.05;
+    private static final double BETA = 0.05;
+    private static final double LOWER_BOUND = Math.log(BETA / (1 - ALPHA));
+    private static final double UPPER_BOUND = Math.log((1 - BETA) / ALPHA);
+    //the SPRT decides between "the first strategy is this much weaker" and "this much stronger"
+    public static final double ELO_BOUND = 10;
+
+    private final StrategyRegistry registry;
+    private final long maxGames;
+
+    /**
+     * @param registry (StrategyRegistry) the strategies that can be played
+     * @param maxGames (long) the most games a matchup plays if the SPRT hasn't decided by then
+     */
+    public RoundRobin(StrategyRegistry registry, long maxGames){
+        this.registry = registry;
+        this.maxGames = maxGames;
+    }
+
+    /**
+     * Plays every pair of the strategies against each other in each mode, one matchup at a time.
+     * @param modes (List<GameMode>) the modes to play
+     * @param names (List<String>) the strategies to play, by registered name
+     * @param seed (long) the round robin seed; the same seed deals the same games
+     * @param parallelism (int) the number of worker threads
+     * @return (List<Matchup>) the results of every matchup, by mode and then in the order of names
+     */
+    public List<Matchup> run(List<GameMode> modes, List<String> names, long seed, int parallelism){
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<Matchup> matchups = new ArrayList<>();
+            for (GameMode mode : modes){
+                for (int i = 0; i < names.size(); i++){
+                    for (int j = i + 1; j < names.size(); j++){
+                        matchups.add(play(mode, names.get(i), names.get(j), seed, pool));
+                    }
+                }
+            }
+            return matchups;
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Plays mirrored deals between two strategies until the SPRT decides between them or maxGames are played.
+     * @param mode (GameMode) the rules to play by
+     * @param first (String) a registered strategy
+     * @param second (String) another registered strategy
+     * @param seed (long) the round robin seed
+     * @param pool (ForkJoinPool) the pool to play the deals on
+     * @return (Matchup) the results, from the first strategy's side
+     */
+    public Matchup play(GameMode mode, String first, String second, long seed, ForkJoinPool pool){
+        Supplier<Strategy> firstStrategy = registry.get(first);
+        Supplier<Strategy> secondStrategy = registry.get(second);
+        Matchup matchup = new Matchup(mode, first, second);
+        long maxDeals = Math.max(1, maxGames / 2);
+        int leafDeals = Math.max(1, CHECK_DEALS / (pool.getParallelism() * LEAVES_PER_THREAD));
+        long deal = 0;
+        while (deal < maxDeals && getVerdict(matchup) == 0){
+            long end = Math.min(maxDeals, deal + CHECK_DEALS);
+            matchup.merge(pool.invoke(new Deals(mode, first, second, firstStrategy, secondStrategy, seed, deal, end,
+                    leafDeals)));
+            deal = end;
+        }
+        return matchup;
+    }
+
+    /**
+     * @param matchup (Matchup) the results so far
+     * @return (int) 1 if the SPRT has decided the first strategy is stronger, -1 if weaker, 0 if it can't tell yet
+     */
+    public static int getVerdict(Matchup matchup){
+        double llr = matchup.getLlr(-ELO_BOUND, ELO_BOUND);
+        if (llr >= UPPER_BOUND){
+            return 1;
+        }
+        else if (llr <= LOWER_BOUND){
+            return -1;
+        }
+        return 0;
+    }
+
+    /**
+     * @param matchup (Matchup) a finished matchup
+     * @return (String) which strategy the SPRT found stronger; when it stopped at the most games without deciding,
+     * "within 10 Elo" if the whole confidence interval is, and otherwise "undecided" and the LLR it reached
+     */
+    public static String describeVerdict(Matchup matchup){
+        int verdict = getVerdict(matchup);
+        if (verdict > 0){
+            return matchup.getStrategy(0) + " is stronger";
+        }
+        else if (verdict < 0){
+            return matchup.getStrategy(1) + " is stronger";
+        }
+        else if (matchup.getEloLow() > -ELO_BOUND && matchup.getEloHigh() < ELO_BOUND){
+            return "within " + (int) ELO_BOUND + " Elo";
+        }
+        return String.format("undecided (LLR %.2f)", matchup.getLlr(-ELO_BOUND, ELO_BOUND));
+    }
+
+    /**
+     * Fits a rating to every strategy from its matchups in one mode.
+     * @param matchups (List<Matchup>) the matchups of one mode
+     * @param names (List<String>) the strategies in them; the first is rated 0
+     * @return (double[]) the Elo rating of each strategy, in the order of names
+     */
+    public static double[] getRatings(List<Matchup> matchups, List<String> names){
+        int count = names.size();
+        double[][] games = new double[count][count];
+        double[] points = new double[count];
+        for (Matchup matchup : matchups){
+            int i = names.indexOf(matchup.getStrategy(0));
+            int j = names.indexOf(matchup.getStrategy(1));
+            double played = matchup.getGames() + 2; //and a virtual drawn deal
+            double won = matchup.getScore() * matchup.getGames() + 1;
+            games[i][j] += played;
+            games[j][i] += played;
+            points[i] += won;
+            points[j] += played - won;
+        }
+
+        //minorization-maximization: each strength becomes its points over the points it was expected to score
+        double[] strength = new double[count];
+        Arrays.fill(strength, 1);
+        for (int iteration = 0; iteration < 1000; iteration++){
+            double[] next = new double[count];
+            for (int i = 0; i < count; i++){
+                double expected = 0;
+                for (int j = 0; j < count; j++){
+                    if (games[i][j] > 0){
+                        expected += games[i][j] / (strength[i] + strength[j]);
+                    }
+                }
+                next[i] = expected == 0 ? strength[i] : points[i] / expected;
+            }
+            for (int i = 0; i < count; i++){
+                strength[i] = next[i] / next[0];
+            }
+        }
+
+        double[] ratings = new double[count];
+        for (int i = 0; i < count; i++){
+            ratings[i] = 400 * Math.log10(strength[i]);
+        }
+        return ratings;
+    }
+
+    /**
+     * Plays deals [start, end), splitting in half until a batch is no more than leafDeals.
+     */
+    private static class Deals extends RecursiveTask<Matchup> {
+        private static final long serialVersionUID = 1L;
+
+        private final GameMode mode;
+        private final String first;
+        private final String second;
+        private final Supplier<Strategy> firstStrategy;
+        private final Supplier<Strategy> secondStrategy;
+        private final long seed;
+        private final long start;
+        private final long end;
+        private final int leafDeals;
+
+        Deals(GameMode mode, String first, String second, Supplier<Strategy> firstStrategy,
+              Supplier<Strategy> secondStrategy, long seed, long start, long end, int leafDeals){
+            this.mode = mode;
+            this.first = first;
+            this.second = second;
+            this.firstStrategy = firstStrategy;
+            this.secondStrategy = secondStrategy;
+            this.seed = seed;
+            this.start = start;
+            this.end = end;
+            this.leafDeals = leafDeals;
+        }
+
+        protected Matchup compute(){
+            if (end - start <= leafDeals){
+                Strategy a = firstStrategy.get();
+                Strategy b = secondStrategy.get();
+                Strategy[] firstSeated = {a, b};
+                Strategy[] secondSeated = {b, a};
+                Deck deck = new Deck();
+                Matchup matchup = new Matchup(mode, first, second);
+                for (long deal = start; deal < end; deal++){
+                    long dealSeed = Tournament.gameSeed(seed, deal);
+                    GameResult one = GoFish.simulate(mode, dealSeed, firstSeated, deck);
+                    GameResult other = GoFish.simulate(mode, dealSeed, secondSeated, deck);
+                    matchup.add(one, other);
+                }
+                return matchup;
+            }
+
+            long middle = (start + end) >>> 1;
+            Deals left = new Deals(mode, first, second, firstStrategy, secondStrategy, seed, start, middle, leafDeals);
+            left.fork();
+            Matchup matchup = new Deals(mode, first, second, firstStrategy, secondStrategy, seed, middle, end,
+                    leafDeals).compute();
+            matchup.merge(left.join());
+            return matchup;
+        }
+    }
+
+
+    public static void main(String[] args){
+        long maxGames = args.length > 0 ? Long.parseLong(args[0]) : 20_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        String modeArg = args.length > 2 ? args[2] : "both";
+        List<GameMode> modes = modeArg.equalsIgnoreCase("all") ? List.of(GameMode.values())
+                : modeArg.equalsIgnoreCase("both") ? List.of(GameMode.PAIRS, GameMode.BOOKS)
+                : GoFish.parseGameMode(modeArg) != null ? List.of(GoFish.parseGameMode(modeArg))
+                : null;
+        if (modes == null){
+            System.err.println("usage: java RoundRobin [max games] [threads] [pairs|books|singles|threes|both|all] [strategy ...]");
+            return;
+        }
+
+        StrategyRegistry registry = StrategyRegistry.standard();
+        List<String> names = args.length > 3 ? Arrays.asList(args).subList(3, args.length) : registry.getNames();
+
+        RoundRobin roundRobin = new RoundRobin(registry, maxGames);
+        long startTime = System.nanoTime();
+        List<Matchup> matchups = roundRobin.run(modes, names, 0, threads);
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+
+        long games = 0;
+        for (GameMode mode : modes){
+            List<Matchup> played = new ArrayList<>();
+            for (Matchup matchup : matchups){
+                if (matchup.getGameMode() == mode){
+                    played.add(matchup);
+                    games += matchup.getGames();
+                    System.out.println(matchup + ": " + describeVerdict(matchup));
+                }
+            }
+            double[] ratings = getRatings(played, names);
+            System.out.print("\t" + GameMode.modeToString(mode) + " ratings:");
+            for (int i = 0; i < names.size(); i++){
+                System.out.printf(" %s %+.0f", names.get(i), ratings[i]);
+            }
+            System.out.println();
+        }
+        System.out.printf("%d games in %.1f s, instead of %d for %d games a matchup%n",
+                games, seconds, maxGames * matchups.size(), maxGames);
+    }
+}
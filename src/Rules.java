@@ -0,0 +1,78 @@
+/**
+ * How a variant of Go Fish plays out: how many cards of a rank make a set (a pair or a book), how many the
+ * opponent hands over for one ask, and what happens to cards handed over, drawn or dealt.
+ * Each GameMode has one Rules object (see GameMode.getRules()) and a GoFish game is bound to it for its whole life,
+ * so the engine's loop never branches on the mode and each variant runs as fast as the others.
+ *
+ * Sets made of two cards are pairs (Player.addPair(), pairMade events) and larger sets are books.
+ * Implementations hold no state and are shared by every game.
+ */
+public interface Rules {
+
+    /**
+     * @return (int) the cards of one rank that make a set: 2 for a pair, 4 for a book
+     */
+    int getSetSize();
+
+    /**
+     * @return (int) the most cards of the rank asked for that the opponent hands over
+     */
+    int getMaxHandedOver();
+
+    /**
+     * @param player (Player)
+     * @return (int) the player's score: the pairs or books they have made
+     */
+    int getScore(Player player);
+
+    /**
+     * Lays down every set in a dealt hand, scoring them and reporting each to the listener
+     * (startingPair or startingBook).
+     * @param player (Player) the player whose hand was dealt
+     * @param listener (GameEventListener)
+     */
+    void checkStartingHand(Player player, GameEventListener listener);
+
+    /**
+     * Gives the current player the cards the opponent handed over, laying down any set they make, and reports it
+     * (handedOver, then pairMade or bookMade).
+     * @param current (Player) the player who asked
+     * @param opponent (Player) the player who handed the cards over; they are already out of their hand
+     * @param rank (Rank) the rank asked for
+     * @param cards (long) a mask of the cards handed over
+     * @param listener (GameEventListener)
+     */
+    void handOver(Player current, Player opponent, Rank rank, long cards, GameEventListener listener);
+
+    /**
+     * Gives a player the card they drew, or lays it down with the cards it makes a set with.
+     * The draw itself has already been reported; a set made is reported here (pairMade or bookMade).
+     * @param player (Player)
+     * @param card (Card) the card drawn
+     * @param listener (GameEventListener)
+     */
+    void draw(Player player, Card card, GameEventListener listener);
+
+    /**
+     * The game is over once the deck is empty and no more sets can be made from the cards left in the hands.
+     * For sets of 2 or 4 that means both hands are empty too; with sets of 3, the fourth card of a rank is left over.
+     * @param deck (Deck)
+     * @param players (Player[]) the two players
+     * @return (boolean) true if the game is over
+     */
+    default boolean isOver(Deck deck, Player[] players){
+        if (!deck.isEmpty()){
+            return false;
+        }
+        if (players[0].isHandEmpty() && players[1].isHandEmpty()){
+            return true;
+        }
+        long left = players[0].getHandMask() | players[1].getHandMask();
+        for (int r = 0; r < 13; r++){
+            if (Long.bitCount(left & (0xFL << (r * 4))) >= getSetSize()){
+                return false;
+            }
+        }
+        return true;
+    }
+}
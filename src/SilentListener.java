@@ -0,0 +1,7 @@
+/**
+ * A GameEventListener that ignores every event, for simulations and benchmarks.
+ */
+public class SilentListener implements GameEventListener {
+
+    public static final SilentListener INSTANCE = new SilentListener();
+}
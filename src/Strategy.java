@@ -0,0 +1,22 @@
+import java.util.SplittableRandom;
+
+/**
+ * Decides which rank a computer player asks its opponent for.
+ * Implementations must not print anything, so that they can be used in headless simulations.
+ */
+public interface Strategy {
+
+    /**
+     * Chooses a rank to ask the opponent for. The rank must be in the player's hand.
+     * @param player (Player) the player whose turn it is
+     * @param opponent (Player) the player being asked
+     * @param rand (SplittableRandom) the game's random number generator
+     * @return (Rank) the rank to ask for
+     */
+    Rank chooseRank(Player player, Player opponent, SplittableRandom rand);
+
+    /**
+     * @return (String) a short name for the strategy, used when reporting results.
+     */
+    String getName();
+}
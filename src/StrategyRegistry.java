@@ -0,0 +1,61 @@
+/**
+ * The computer strategies available to evaluate, by name. Each entry is a Supplier rather than a Strategy,
+ * because strategies like CardCountingStrategy remember the game they play in: every worker and every seat
+ * gets its own instance.
+ *
+ * standard() holds the strategies that come with the game. A new AI is ranked against them by registering it
+ * and running a RoundRobin, e.g. registry.register("MyAI", MyStrategy::new).
+ */
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+public class StrategyRegistry {
+    private final Map<String, Supplier<Strategy>> strategies = new LinkedHashMap<>(); //in the order registered
+
+    /**
+     * @return (StrategyRegistry) Random, CardCounting, and MCTS with a reproducible 50 playouts per move on one thread
+     */
+    public static StrategyRegistry standard(){
+        StrategyRegistry registry = new StrategyRegistry();
+        registry.register("Random", RandomStrategy::new);
+        registry.register("CardCounting", CardCountingStrategy::new);
+        registry.register("MCTS", () -> new MctsStrategy(0, 50, 1));
+        return registry;
+    }
+
+    /**
+     * @param name (String) the name to report results under
+     * @param strategy (Supplier<Strategy>) creates a new instance of the strategy
+     * @throws IllegalArgumentException if a strategy already has the name
+     */
+    public synchronized void register(String name, Supplier<Strategy> strategy){
+        if (strategies.putIfAbsent(name, strategy) != null){
+            throw new IllegalArgumentException("a strategy called " + name + " is already registered");
+        }
+    }
+
+    /**
+     * @param name (String) a registered name, ignoring case
+     * @return (Supplier<Strategy>) creates the strategy
+     * @throws IllegalArgumentException if no strategy has the name
+     */
+    public synchronized Supplier<Strategy> get(String name){
+        for (Map.Entry<String, Supplier<Strategy>> entry : strategies.entrySet()){
+            if (entry.getKey().equalsIgnoreCase(name)){
+                return entry.getValue();
+            }
+        }
+        throw new IllegalArgumentException("no strategy called " + name + "; try one of " + getNames());
+    }
+
+    /**
+     * @return (List<String>) every registered name, in the order registered
+     */
+    public synchronized List<String> getNames(){
+        return new ArrayList<>(strategies.keySet());
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * A histogram that many threads can record into at once without locks, using the same log-linear buckets as
+ * LatencyHistogram. Each thread counts into one of several stripes (picked by thread id), so threads rarely touch
+ * the same cache lines; the count and sum are LongAdders and the maximum a LongAccumulator. A stripe is about
+ * 30 KB, so there are at most MAX_STRIPES of them however many processors there are.
+ *
+ * snapshot() adds up the stripes into a LatencyHistogram for reading percentiles. Values recorded while a
+ * snapshot is taken may or may not be included, and the count, sum and maximum may disagree by those values.
+ */
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+public class StripedHistogram {
+    //more stripes than this cost more memory than the contention they save
+    private static final int MAX_STRIPES = 8;
+
+    private final AtomicLongArray[] stripes;
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public StripedHistogram(){
+        int stripeCount = Math.min(MAX_STRIPES,
+                Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1)) * 2);
+        stripes = new AtomicLongArray[stripeCount];
+        for (int i = 0; i < stripeCount; i++){
+            stripes[i] = new AtomicLongArray(LatencyHistogram.BUCKETS);
+        }
+    }
+
+    /**
+     * @param value (long) the value to count; negative values are counted as 0
+     */
+    public void record(long value){
+        if (value < 0){
+            value = 0;
+        }
+        int stripe = (int) (Thread.currentThread().getId() * 0x9E3779B97F4A7C15L >>> 40) & (stripes.length - 1);
+        stripes[stripe].getAndIncrement(LatencyHistogram.indexOf(value));
+        total.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * @return (LatencyHistogram) a copy of everything recorded so far
+     */
+    public LatencyHistogram snapshot(){
+        long[] counts = new long[LatencyHistogram.BUCKETS];
+        for (AtomicLongArray stripe : stripes){
+            for (int i = 0; i < counts.length; i++){
+                counts[i] += stripe.get(i);
+            }
+        }
+        return new LatencyHistogram(counts, total.sum(), max.get());
+    }
+}
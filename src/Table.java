@@ -0,0 +1,236 @@
+/**
+ * One game of Go Fish hosted by GoFishServer. A table owns its GoFish game; every method that touches the game
+ * is synchronized, so the connections seated at the table can call in from their own threads.
+ *
+ * The table is the game's GameEventListener, and turns each event into protocol lines for the seated players.
+ * Lines are built in one reusable TextBuffer and copied into each connection's queue under the table's lock,
+ * and the queues are flushed once the game is waiting on a human again, after the lock is released, so a client
+ * that is slow to read never holds up its opponent's asks.
+ * Computer turns are played straight away, so the game only ever waits on a human's ASK.
+ * Each table also reports its game to Java Flight Recorder through a FlightRecorderListener, which costs
+ * next to nothing unless a recording is running.
+ */
+
+public class Table implements GameEventListener {
+    private final int id;
+    private final GameMode gameMode;
+    private final ClientConnection[] seats; //null for a computer player
+    private final Player[] players;
+    private final long seed;
+    private final TextBuffer line = new TextBuffer(); //the protocol line being built
+    private GoFish game;
+    private boolean closed;
+
+    /**
+     * @param id (int) the table's number on the server
+     * @param gameMode (GameMode) the rules to play by
+     * @param seats (ClientConnection[]) the two connections playing, in turn order; null seats are computer players
+     * @param seed (long) seeds the shuffle and the computer player's choices
+     */
+    public Table(int id, GameMode gameMode, ClientConnection[] seats, long seed){
+        this.id = id;
+        this.gameMode = gameMode;
+        this.seats = seats.clone();
+        this.seed = seed;
+        this.players = new Player[2];
+        for (int i = 0; i < 2; i++){
+            if (seats[i] == null){
+                players[i] = new Player("Computer", new RandomStrategy());
+            }
+            else{
+                players[i] = new Player(true, seats[i].getName());
+            }
+        }
+    }
+
+    /**
+     * Tells both seats about the table, deals, and plays until a human needs to ask.
+     */
+    public void start(){
+        synchronized (this){
+            for (int i = 0; i < 2; i++){
+                send(i, "TABLE " + id + " " + GameMode.modeToString(gameMode).toLowerCase() + " "
+                        + players[1 - i].name + (i == 0 ? " first" : " second"));
+            }
+            game = new GoFish(gameMode, seed, players, new MulticastListener(this, new FlightRecorderListener()));
+            advance();
+        }
+        flushAll();
+    }
+
+    /**
+     * Asks the opponent for a rank on behalf of a seated player, then plays on until a human needs to ask again.
+     * @param seat (ClientConnection) the connection asking
+     * @param rank (Rank) the rank asked for
+     */
+    public void ask(ClientConnection seat, Rank rank){
+        synchronized (this){
+            int i = seatOf(seat);
+            if (closed || game.getCurrentPlayer() != players[i] || !game.isAwaitingInput()){
+                seat.send("ERROR not your turn");
+            }
+            else if (!game.askFor(rank)){
+                seat.send("ERROR you must ask for a rank in your hand");
+            }
+            else{
+                advance();
+            }
+        }
+        flushAll();
+    }
+
+    /**
+     * Sends a seated player their hand.
+     * @param seat (ClientConnection) the connection asking to see its hand
+     */
+    public void showHand(ClientConnection seat){
+        synchronized (this){
+            int i = seatOf(seat);
+            seat.send(line("HAND").appendCards(players[i].getHandMask(), ' '));
+        }
+        seat.flush();
+    }
+
+    /**
+     * Ends the game early because a player disconnected or quit.
+     * @param seat (ClientConnection) the connection leaving
+     */
+    public void leave(ClientConnection seat){
+        synchronized (this){
+            if (closed){
+                return;
+            }
+            closed = true;
+            int i = seatOf(seat);
+            send(1 - i, line("LEFT ").append(players[i].name));
+            release();
+        }
+        flushAll();
+    }
+
+    public synchronized boolean isClosed(){
+        return closed;
+    }
+
+    public int getId(){
+        return id;
+    }
+
+    private void advance(){
+        while (!game.isGameOver() && !game.isAwaitingInput()){
+            game.step();
+        }
+        if (!game.isGameOver()){
+            Player player = game.getCurrentPlayer();
+            int i = player == players[0] ? 0 : 1;
+            send(i, line("YOURTURN").appendCards(player.getHandMask(), ' '));
+            send(1 - i, line("WAIT ").append(player.name));
+        }
+    }
+
+    private int seatOf(ClientConnection seat){
+        return seats[0] == seat ? 0 : 1;
+    }
+
+    private int seatOf(Player player){
+        return players[0] == player ? 0 : 1;
+    }
+
+    /**
+     * Starts a new protocol line in the table's buffer.
+     * @param command (String) the start of the line
+     * @return (TextBuffer) the buffer, to append the rest of the line to
+     */
+    private TextBuffer line(String command){
+        line.clear();
+        return line.append(command);
+    }
+
+    private void send(int seat, String text){
+        if (seats[seat] != null){
+            seats[seat].send(text);
+        }
+    }
+
+    private void send(int seat, TextBuffer text){
+        if (seats[seat] != null){
+            seats[seat].send(text);
+        }
+    }
+
+    private void sendAll(TextBuffer text){
+        send(0, text);
+        send(1, text);
+    }
+
+    /**
+     * Writes out both seats' queued lines. Called without holding the table's lock.
+     */
+    private void flushAll(){
+        for (ClientConnection seat : seats){
+            if (seat != null){
+                seat.flush();
+            }
+        }
+    }
+
+    /**
+     * Frees both seats so their connections can start another game.
+     */
+    private void release(){
+        for (ClientConnection seat : seats){
+            if (seat != null){
+                seat.leftTable(this);
+            }
+        }
+    }
+
+    public void cardDealt(Player player, Card card){
+        send(seatOf(player), line("DEALT ").appendAbbrev(card));
+    }
+
+    public void startingPair(Player player, Card card1, Card card2){
+        sendAll(line("PAIR ").append(player.name).append(' ').appendAbbrev(card1.getValue()));
+    }
+
+    public void startingBook(Player player, Rank rank){
+        sendAll(line("BOOK ").append(player.name).append(' ').appendAbbrev(rank));
+    }
+
+    public void asked(Player current, Player opponent, Rank rank){
+        sendAll(line("ASKED ").append(current.name).append(' ').appendAbbrev(rank));
+    }
+
+    public void handedOver(Player current, Player opponent, Rank rank, long cards){
+        sendAll(line("GAVE ").append(opponent.name).appendCards(cards, ' '));
+    }
+
+    public void goFish(Player current, Player opponent, Rank rank){
+        sendAll(line("GOFISH ").append(current.name));
+    }
+
+    public void cardDrawn(Player player, Card card){
+        int i = seatOf(player);
+        send(i, line("DREW ").appendAbbrev(card));
+        send(1 - i, line("FISHED ").append(player.name));
+    }
+
+    public void deckEmpty(Player player){
+        sendAll(line("DECKEMPTY ").append(player.name));
+    }
+
+    public void pairMade(Player player, Rank rank){
+        sendAll(line("PAIR ").append(player.name).append(' ').appendAbbrev(rank));
+    }
+
+    public void bookMade(Player player, Rank rank){
+        sendAll(line("BOOK ").append(player.name).append(' ').appendAbbrev(rank));
+    }
+
+    public void gameOver(Player[] players, Player winner){
+        sendAll(line("GAMEOVER ").append(winner == null ? "DRAW" : winner.name)
+                .append(' ').append(game.getScore(players[0])).append(' ').append(game.getScore(players[1])));
+        closed = true;
+        release();
+    }
+}
@@ -0,0 +1,236 @@
+/**
+ * A reusable buffer of UTF-8 text for narration and protocol lines. The names of cards and ranks are copied in from
+ * byte arrays built once when the class loads, numbers are written digit by digit and plain ASCII strings
+ * (such as player names) byte by byte, so filling the buffer allocates nothing once it has grown large enough.
+ * The buffer is written out with writeTo() and then cleared for the next turn or line.
+ *
+ * A TextBuffer is not thread safe.
+ */
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public final class TextBuffer {
+    private static final byte[][] CARD_NAMES = new byte[52][]; //"Queen of Spades", by card index
+    private static final byte[][] CARD_ABBREVS = new byte[52][]; //"QS"
+    private static final byte[][] RANK_NAMES = new byte[13][]; //"Queen"
+    private static final byte[][] RANK_ABBREVS = new byte[13][]; //"Q"
+
+    static {
+        for (int index = 0; index < 52; index++){
+            Card card = Card.fromIndex(index);
+            CARD_NAMES[index] = ascii(card.toString());
+            CARD_ABBREVS[index] = ascii(card.getAbbrev());
+        }
+        for (Rank rank : Rank.values()){
+            RANK_NAMES[rank.ordinal()] = ascii(Rank.rankToString(rank));
+            RANK_ABBREVS[rank.ordinal()] = ascii(Rank.rankToAbbrev(rank));
+        }
+    }
+
+    private byte[] bytes;
+    private int length;
+
+    public TextBuffer(){
+        this(256);
+    }
+
+    /**
+     * @param capacity (int) the number of bytes to make room for at first; the buffer grows as needed
+     */
+    public TextBuffer(int capacity){
+        bytes = new byte[Math.max(capacity, 16)];
+    }
+
+    private static byte[] ascii(String text){
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Appends text, e.g. a player's name. ASCII is copied byte by byte; anything else is encoded as UTF-8.
+     * @param text (String)
+     * @return (TextBuffer) this buffer
+     */
+    public TextBuffer append(String text){
+        int n = text.length();
+        ensure(n);
+        for (int i = 0; i < n; i++){
+            char c = text.charAt(i);
+            if (c >= 0x80){ //start again, encoding the whole string
+                return append(text.getBytes(StandardCharsets.UTF_8));
+            }
+            bytes[length + i] = (byte) c;
+        }
+        length += n;
+        return this;
+    }
+
+    /**
+     * @param c (char) an ASCII character
+     * @return (TextBuffer) this buffer
+     */
+    public TextBuffer append(char c){
+        ensure(1);
+        bytes[length++] = (byte) c;
+        return this;
+    }
+
+    /**
+     * Appends a number in decimal.
+     * @param number (int)
+     * @return (TextBuffer) this buffer
+     */
+    public TextBuffer append(int number){
+        if (number < 0){
+            if (number == Integer.MIN_VALUE){
+                return append(Integer.toString(number));
+            }
+            append('-');
+            number = -number;
+        }
+        int digits = 1;
+        for (int rest = number / 10; rest != 0; rest /= 10){
+            digits++;
+        }
+        ensure(digits);
+        for (int i = length + digits - 1; i >= length; i--){
+            bytes[i] = (byte) ('0' + number % 10);
+            number /= 10;
+        }
+        length += digits;
+        return this;
+    }
+
+    public TextBuffer append(byte[] text){
+        ensure(text.length);
+        System.arraycopy(text, 0, bytes, length, text.length);
+        length += text.length;
+        return this;
+    }
+
+    /**
+     * @param other (TextBuffer) text to copy in; it is left unchanged
+     * @return (TextBuffer) this buffer
+     */
+    public TextBuffer append(TextBuffer other){
+        ensure(other.length);
+        System.arraycopy(other.bytes, 0, bytes, length, other.length);
+        length += other.length;
+        return this;
+    }
+
+    /**
+     * @param card (Card)
+     * @return (TextBuffer) this buffer, with e.g. "Queen of Spades" appended
+     */
+    public TextBuffer appendCard(Card card){
+        return append(CARD_NAMES[card.getIndex()]);
+    }
+
+    /**
+     * @param card (Card)
+     * @return (TextBuffer) this buffer, with e.g. "QS" appended
+     */
+    public TextBuffer appendAbbrev(Card card){
+        return append(CARD_ABBREVS[card.getIndex()]);
+    }
+
+    /**
+     * @param rank (Rank)
+     * @return (TextBuffer) this buffer, with e.g. "Queen" appended
+     */
+    public TextBuffer appendRank(Rank rank){
+        return append(RANK_NAMES[rank.ordinal()]);
+    }
+
+    /**
+     * @param rank (Rank)
+     * @return (TextBuffer) this buffer, with e.g. "Q" appended
+     */
+    public TextBuffer appendAbbrev(Rank rank){
+        return append(RANK_ABBREVS[rank.ordinal()]);
+    }
+
+    /**
+     * Appends cards in short form, in index order, each after the separator, e.g. " AS 10H".
+     * @param cards (long) a mask of card indexes, see Card.getIndex()
+     * @param separator (char) written before each card
+     * @return (TextBuffer) this buffer
+     */
+    public TextBuffer appendCards(long cards, char separator){
+        for (long rest = cards; rest != 0; rest &= rest - 1){
+            append(separator).append(CARD_ABBREVS[Long.numberOfTrailingZeros(rest)]);
+        }
+        return this;
+    }
+
+    /**
+     * Appends a hand as neat text, e.g. "\t[AS, 2C, 10H]\n".
+     * @param cards (long) a mask of card indexes, see Card.getIndex()
+     * @return (TextBuffer) this buffer
+     */
+    public TextBuffer appendHand(long cards){
+        append('\t').append('[');
+        for (long rest = cards; rest != 0; rest &= rest - 1){
+            if (rest != cards){
+                append(',').append(' ');
+            }
+            append(CARD_ABBREVS[Long.numberOfTrailingZeros(rest)]);
+        }
+        return append(']').append('\n');
+    }
+
+    public TextBuffer newline(){
+        return append('\n');
+    }
+
+    public int length(){
+        return length;
+    }
+
+    /**
+     * @return (boolean) true if the text is all ASCII, so its bytes are the same in any ASCII-compatible charset
+     */
+    public boolean isAscii(){
+        for (int i = 0; i < length; i++){
+            if (bytes[i] < 0){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void clear(){
+        length = 0;
+    }
+
+    /**
+     * Writes the buffer out. The buffer is left as it is; clear() it to start again.
+     * @param out (OutputStream)
+     * @throws IOException if the stream can't be written to
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(bytes, 0, length);
+    }
+
+    /**
+     * Writes the buffer out. A PrintStream records errors instead of throwing them.
+     * @param out (PrintStream)
+     */
+    public void writeTo(PrintStream out){
+        out.write(bytes, 0, length);
+    }
+
+    private void ensure(int more){
+        if (length + more > bytes.length){
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + more));
+        }
+    }
+
+    public String toString(){
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,271 @@
+/**
+ * Compilation: javac Tournament.java
+ * Execution: java Tournament [number of games] [number of threads] [metrics|jfr|none] [results file]
+ *
+ * Plays many headless games of Go Fish between two computer strategies, split across a ForkJoinPool.
+ * Every game gets its own GoFish instance and its own seed derived from the tournament seed and the game's index,
+ * so the totals are the same no matter how many threads are used.
+ * Each worker creates its own Strategy objects and Deck, so strategies that remember things between turns are safe to use.
+ * A worker can also get its own GameEventListener, e.g. a MetricsListener recording into a shared MetricsRegistry,
+ * or a FlightRecorderListener for profiling long runs with Java Flight Recorder.
+ * Every game's result can also be kept in a ResultsStore: game i of a run goes in the run's i-th record,
+ * so the file comes out the same no matter how many threads are used.
+ * Statistics are kept in fixed-size TournamentStats, never as lists of games: each worker plays a batch into its own
+ * and adds it to the run's TournamentProgress, which can be read for the totals so far while the run goes on.
+ * A long run from the command line prints them every few seconds.
+ */
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+public class Tournament {
+
+    //games played by one worker without splitting further
+    private static final int BATCH_SIZE = 1024;
+    //how often main() prints the totals so far
+    private static final long REPORT_MILLIS = 5000;
+
+    private final GameMode gameMode;
+    private final Supplier<Strategy> first;
+    private final Supplier<Strategy> second;
+    private final String firstName; //the names results are stored under, or null for Strategy.getName()
+    private final String secondName;
+    private final Supplier<GameEventListener> listeners;
+    //each worker thread's totals for the batch it is playing, reused from batch to batch
+    private final ThreadLocal<TournamentStats> workerStats = ThreadLocal.withInitial(TournamentStats::new);
+
+    /**
+     * @param gameMode (GameMode) the rules every game is played by
+     * @param first (Supplier<Strategy>) creates the first player's strategy for each worker
+     * @param second (Supplier<Strategy>) creates the second player's strategy for each worker
+     */
+    public Tournament(GameMode gameMode, Supplier<Strategy> first, Supplier<Strategy> second){
+        this(gameMode, first, second, () -> SilentListener.INSTANCE);
+    }
+
+    /**
+     * @param gameMode (GameMode) the rules every game is played by
+     * @param first (Supplier<Strategy>) creates the first player's strategy for each worker
+     * @param second (Supplier<Strategy>) creates the second player's strategy for each worker
+     * @param listeners (Supplier<GameEventListener>) creates the listener for each worker's games
+     */
+    public Tournament(GameMode gameMode, Supplier<Strategy> first, Supplier<Strategy> second,
+                      Supplier<GameEventListener> listeners){
+        this(gameMode, null, first, null, second, listeners);
+    }
+
+    /**
+     * @param gameMode (GameMode) the rules every game is played by
+     * @param firstName (String) the name the first player's games are stored under, e.g. its StrategyRegistry name
+     * @param first (Supplier<Strategy>) creates the first player's strategy for each worker
+     * @param secondName (String) the name the second player's games are stored under
+     * @param second (Supplier<Strategy>) creates the second player's strategy for each worker
+     * @param listeners (Supplier<GameEventListener>) creates the listener for each worker's games
+     */
+    public Tournament(GameMode gameMode, String firstName, Supplier<Strategy> first, String secondName,
+                      Supplier<Strategy> second, Supplier<GameEventListener> listeners){
+        this.gameMode = gameMode;
+        this.first = first;
+        this.second = second;
+        this.firstName = firstName;
+        this.secondName = secondName;
+        this.listeners = listeners;
+    }
+
+    /**
+     * Plays the games on the common ForkJoinPool.
+     * @param numGames (long) how many games to play
+     * @param seed (long) the tournament seed
+     * @return (TournamentStats) the merged totals of every game
+     */
+    public TournamentStats run(long numGames, long seed){
+        TournamentProgress progress = new TournamentProgress();
+        ForkJoinPool.commonPool().invoke(new Batch(0, numGames, seed, null, 0, progress));
+        return progress.snapshot();
+    }
+
+    /**
+     * Plays the games on a pool with the given number of threads.
+     * @param numGames (long) how many games to play
+     * @param seed (long) the tournament seed
+     * @param parallelism (int) the number of worker threads
+     * @return (TournamentStats) the merged totals of every game
+     */
+    public TournamentStats run(long numGames, long seed, int parallelism){
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            TournamentProgress progress = new TournamentProgress();
+            pool.invoke(new Batch(0, numGames, seed, null, 0, progress));
+            return progress.snapshot();
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Plays the games on a pool with the given number of threads, appending every game's result to a store.
+     * @param numGames (long) how many games to play
+     * @param seed (long) the tournament seed
+     * @param parallelism (int) the number of worker threads
+     * @param results (ResultsStore) where to append the games; flushed once they have all been written
+     * @return (TournamentStats) the merged totals of every game
+     * @throws IOException if the store can't be flushed
+     */
+    public TournamentStats run(long numGames, long seed, int parallelism, ResultsStore results) throws IOException {
+        return run(numGames, seed, parallelism, results, new TournamentProgress());
+    }
+
+    /**
+     * Plays the games on a pool with the given number of threads, adding each batch's totals to progress as
+     * soon as it is played, so another thread can read the totals so far while the run is going.
+     * @param numGames (long) how many games to play
+     * @param seed (long) the tournament seed
+     * @param parallelism (int) the number of worker threads
+     * @param results (ResultsStore) where to append the games, or null not to keep them
+     * @param progress (TournamentProgress) receives the totals of every batch; a new one for each run
+     * @return (TournamentStats) the merged totals of every game in progress
+     * @throws IOException if the store can't be flushed
+     */
+    public TournamentStats run(long numGames, long seed, int parallelism, ResultsStore results,
+                               TournamentProgress progress) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            long firstRecord = results == null ? 0 : results.reserve(numGames);
+            pool.invoke(new Batch(0, numGames, seed, results, firstRecord, progress));
+            if (results != null){
+                results.flush();
+            }
+            return progress.snapshot();
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Derives the seed of one game from the tournament seed (SplitMix64 finalizer),
+     * so that neighbouring games don't get neighbouring seeds.
+     * @param seed (long) the tournament seed
+     * @param game (long) the game's index
+     * @return (long) the game's seed
+     */
+    public static long gameSeed(long seed, long game){
+        long z = seed + (game + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Plays games [start, end), splitting in half until a batch is small enough for one worker.
+     */
+    private class Batch extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long start;
+        private final long end;
+        private final long seed;
+        private final ResultsStore results; //or null
+        private final long firstRecord; //the record of game 0
+        private final TournamentProgress progress;
+
+        Batch(long start, long end, long seed, ResultsStore results, long firstRecord, TournamentProgress progress){
+            this.start = start;
+            this.end = end;
+            this.seed = seed;
+            this.results = results;
+            this.firstRecord = firstRecord;
+            this.progress = progress;
+        }
+
+        protected void compute(){
+            if (end - start <= BATCH_SIZE){
+                Strategy[] strategies = {first.get(), second.get()};
+                Deck deck = new Deck();
+                GameEventListener listener = listeners.get();
+                TournamentStats stats = workerStats.get();
+                stats.reset();
+                int strategy1 = results == null ? 0
+                        : results.strategyId(firstName != null ? firstName : strategies[0].getName());
+                int strategy2 = results == null ? 0
+                        : results.strategyId(secondName != null ? secondName : strategies[1].getName());
+                for (long game = start; game < end; game++){
+                    GameResult result = GoFish.simulate(gameMode, gameSeed(seed, game), strategies, deck, listener);
+                    stats.add(result);
+                    if (results != null){
+                        results.write(firstRecord + game, result, strategy1, strategy2);
+                    }
+                }
+                progress.add(stats);
+                return;
+            }
+
+            long middle = (start + end) >>> 1;
+            invokeAll(new Batch(start, middle, seed, results, firstRecord, progress),
+                    new Batch(middle, end, seed, results, firstRecord, progress));
+        }
+    }
+
+
+    public static void main(String[] args) throws IOException {
+        long numGames = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        String listener = args.length > 2 ? args[2] : "";
+        MetricsRegistry metrics = listener.equals("metrics") ? new MetricsRegistry() : null;
+        Supplier<GameEventListener> listeners = metrics != null ? () -> new MetricsListener(metrics)
+                : listener.equals("jfr") ? FlightRecorderListener::new
+                : () -> SilentListener.INSTANCE;
+
+        ResultsStore results = args.length > 3 ? ResultsStore.open(Paths.get(args[3])) : null;
+        StrategyRegistry registry = StrategyRegistry.standard();
+
+        for (GameMode mode : GameMode.values()){
+            Tournament tournament = new Tournament(mode, "Random", registry.get("Random"), "Random",
+                    registry.get("Random"), listeners);
+            TournamentProgress progress = new TournamentProgress();
+            Thread reporter = new Thread(() -> report(mode, numGames, progress), "Tournament-progress");
+            reporter.setDaemon(true);
+            long startTime = System.nanoTime();
+            reporter.start();
+            TournamentStats stats = tournament.run(numGames, 0, threads, results, progress);
+            double seconds = (System.nanoTime() - startTime) / 1e9;
+            reporter.interrupt();
+            try {
+                reporter.join();
+            }
+            catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+            }
+            System.out.println(GameMode.modeToString(mode) + ": " + stats);
+            System.out.printf("\t%.0f games/s on %d threads%n", stats.getGames() / seconds, threads);
+        }
+        if (metrics != null){
+            System.out.print(metrics.snapshot().toText());
+        }
+        if (results != null){
+            System.out.println(results.size() + " games in " + args[3]);
+            results.close();
+        }
+    }
+
+    /**
+     * Prints the totals of a run so far every few seconds, until interrupted.
+     */
+    private static void report(GameMode mode, long numGames, TournamentProgress progress){
+        try {
+            while (true){
+                Thread.sleep(REPORT_MILLIS);
+                TournamentStats stats = progress.snapshot();
+                System.out.printf("\t%s, %.1f%% played: %s%n", GameMode.modeToString(mode),
+                        100.0 * stats.getGames() / numGames, stats);
+            }
+        }
+        catch (InterruptedException e){
+            //the run is over
+        }
+    }
+}
@@ -0,0 +1,37 @@
+/**
+ * The totals of a Tournament run while it is still going. Each worker plays a batch of games into its own
+ * TournamentStats and merges it in here when the batch is done, so the totals move on a batch (1024 games)
+ * at a time and another thread can read them whenever it likes, e.g. to print partial results of a long run.
+ *
+ * Workers only take the lock once per batch, and the totals take the same fixed memory however many games
+ * are played. Once the run has finished, the totals are the same as the ones run() returns.
+ */
+public class TournamentProgress {
+    private final TournamentStats totals = new TournamentStats(); //guarded by this
+
+    /**
+     * Adds a finished batch of games to the totals.
+     * @param batch (TournamentStats) the batch's totals; not kept
+     */
+    public synchronized void add(TournamentStats batch){
+        totals.merge(batch);
+    }
+
+    /**
+     * @return (long) the number of games played so far
+     */
+    public synchronized long getGames(){
+        return totals.getGames();
+    }
+
+    /**
+     * @return (TournamentStats) a copy of the totals of the games played so far
+     */
+    public TournamentStats snapshot(){
+        TournamentStats copy = new TournamentStats();
+        synchronized (this){
+            copy.merge(totals);
+        }
+        return copy;
+    }
+}
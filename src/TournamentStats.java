@@ -0,0 +1,201 @@
+/**
+ * Running totals for headless games between the same two strategies: wins and draws, the mean and variance
+ * of each player's score and of the game length, and percentiles of the game length and of the longest streak
+ * of successful asks in a game.
+ *
+ * Every statistic is kept as a count, a sum, a sum of squares or a LatencyHistogram (exact below 128), so a
+ * TournamentStats takes the same fixed memory (about 60 KB) whether it has seen ten games or ten billion,
+ * and merging two of them gives exactly the totals of adding all their games to one. Each worker keeps its
+ * own TournamentStats and merges it into the others, so no locking is needed while games are being played;
+ * see TournamentProgress for reading the totals of a run that is still going.
+ */
+public class TournamentStats {
+    private long games;
+    private long wins1;
+    private long wins2;
+    private long draws;
+    private long totalScore1;
+    private long totalScore2;
+    private long squaredScore1;
+    private long squaredScore2;
+    private long totalTurns;
+    private long squaredTurns;
+    private final LatencyHistogram turns = new LatencyHistogram();
+    private final LatencyHistogram streaks = new LatencyHistogram();
+
+    /**
+     * Adds one finished game to the totals.
+     * @param result (GameResult) the game to record
+     */
+    public void add(GameResult result){
+        add(result.getScore(0), result.getScore(1), result.getTurns());
+        if (result.getLongestStreak() >= 0){
+            streaks.record(result.getLongestStreak());
+        }
+    }
+
+    /**
+     * Adds one finished game to the totals, e.g. one read back from a ResultsStore.
+     * Its longest streak isn't known, so it isn't counted in the streak percentiles.
+     * @param score1 (int) the first player's pairs or books
+     * @param score2 (int) the second player's pairs or books
+     * @param turns (int) the number of turns the game took
+     */
+    public void add(int score1, int score2, int turns){
+        games++;
+        if (score1 > score2){
+            wins1++;
+        }
+        else if (score1 < score2){
+            wins2++;
+        }
+        else{
+            draws++;
+        }
+        totalScore1 += score1;
+        totalScore2 += score2;
+        squaredScore1 += (long) score1 * score1;
+        squaredScore2 += (long) score2 * score2;
+        totalTurns += turns;
+        squaredTurns += (long) turns * turns;
+        this.turns.record(turns);
+    }
+
+    /**
+     * Adds another worker's totals to these.
+     * @param other (TournamentStats) the totals to merge in
+     */
+    public void merge(TournamentStats other){
+        games += other.games;
+        wins1 += other.wins1;
+        wins2 += other.wins2;
+        draws += other.draws;
+        totalScore1 += other.totalScore1;
+        totalScore2 += other.totalScore2;
+        squaredScore1 += other.squaredScore1;
+        squaredScore2 += other.squaredScore2;
+        totalTurns += other.totalTurns;
+        squaredTurns += other.squaredTurns;
+        turns.merge(other.turns);
+        streaks.merge(other.streaks);
+    }
+
+    /**
+     * Empties the totals, so a worker can reuse them for its next batch of games.
+     */
+    public void reset(){
+        games = 0;
+        wins1 = 0;
+        wins2 = 0;
+        draws = 0;
+        totalScore1 = 0;
+        totalScore2 = 0;
+        squaredScore1 = 0;
+        squaredScore2 = 0;
+        totalTurns = 0;
+        squaredTurns = 0;
+        turns.reset();
+        streaks.reset();
+    }
+
+    public long getGames(){
+        return games;
+    }
+
+    /**
+     * @param player (int) 0 for the first player, 1 for the second
+     * @return (long) the number of games the player won
+     */
+    public long getWins(int player){
+        return player == 0 ? wins1 : wins2;
+    }
+
+    public long getDraws(){
+        return draws;
+    }
+
+    /**
+     * @param player (int) 0 for the first player, 1 for the second
+     * @return (double) the fraction of games the player won, from 0 to 1
+     */
+    public double getWinRate(int player){
+        if (games == 0){
+            return 0;
+        }
+        return getWins(player) / (double) games;
+    }
+
+    /**
+     * @param player (int) 0 for the first player, 1 for the second
+     * @return (double) the player's average number of pairs or books per game
+     */
+    public double getMeanScore(int player){
+        if (games == 0){
+            return 0;
+        }
+        return (player == 0 ? totalScore1 : totalScore2) / (double) games;
+    }
+
+    /**
+     * @param player (int) 0 for the first player, 1 for the second
+     * @return (double) the sample variance of the player's pairs or books per game
+     */
+    public double getScoreVariance(int player){
+        return player == 0 ? variance(totalScore1, squaredScore1) : variance(totalScore2, squaredScore2);
+    }
+
+    public double getMeanTurns(){
+        if (games == 0){
+            return 0;
+        }
+        return totalTurns / (double) games;
+    }
+
+    /**
+     * @return (double) the sample variance of the number of turns per game
+     */
+    public double getTurnsVariance(){
+        return variance(totalTurns, squaredTurns);
+    }
+
+    /**
+     * @param percentile (double) from 0 to 100, e.g. 99.9
+     * @return (long) the number of turns that percentile of the games took at most
+     */
+    public long getTurnsAtPercentile(double percentile){
+        return turns.getValueAtPercentile(percentile);
+    }
+
+    /**
+     * @param percentile (double) from 0 to 100, e.g. 99.9
+     * @return (long) the longest streak of successful asks that percentile of the games had at most
+     */
+    public long getStreakAtPercentile(double percentile){
+        return streaks.getValueAtPercentile(percentile);
+    }
+
+    /**
+     * @return (long) the most successful asks in a row in any game
+     */
+    public long getLongestStreak(){
+        return streaks.getMax();
+    }
+
+    private double variance(long total, long squared){
+        if (games < 2){
+            return 0;
+        }
+        double mean = total / (double) games;
+        return Math.max(0, (squared - mean * total) / (games - 1));
+    }
+
+    public String toString(){
+        return games + " games: " + wins1 + " wins, " + wins2 + " losses, " + draws + " draws"
+                + String.format(", mean score %.3f-%.3f (sd %.3f-%.3f), mean turns %.2f (sd %.2f), turns p50/p90/p99 %d/%d/%d",
+                getMeanScore(0), getMeanScore(1), Math.sqrt(getScoreVariance(0)), Math.sqrt(getScoreVariance(1)),
+                getMeanTurns(), Math.sqrt(getTurnsVariance()),
+                getTurnsAtPercentile(50), getTurnsAtPercentile(90), getTurnsAtPercentile(99))
+                + (streaks.getCount() == 0 ? "" : String.format(", longest streak p50/p99/max %d/%d/%d",
+                getStreakAtPercentile(50), getStreakAtPercentile(99), getLongestStreak()));
+    }
+}
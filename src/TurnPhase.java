@@ -0,0 +1,16 @@
+/**
+ * The steps of a turn in Go Fish. GoFish.step() moves a game from one phase to the next.
+ *
+ * ASK: the current player picks a rank (a human player's game waits here for input).
+ * RESOLVE: the opponent hands over any cards of that rank; on success the player asks again.
+ * FISH: the player draws from the deck.
+ * NEXT_PLAYER: the turn passes to the opponent, or the game ends.
+ * GAME_OVER: the deck and both hands are empty.
+ */
+public enum TurnPhase {
+    ASK,
+    RESOLVE,
+    FISH,
+    NEXT_PLAYER,
+    GAME_OVER
+}
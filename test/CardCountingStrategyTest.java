@@ -0,0 +1,73 @@
+/**
+ * Compilation: javac -d out src/*.java test/CardCountingStrategyTest.java
+ * Execution: java -cp out CardCountingStrategyTest
+ *
+ * Plays games in every mode with a CardCountingStrategy and checks its counters after every step against the
+ * real game: the cards it counts as out of play are exactly the cards of the rank made into pairs or books
+ * (with books of 3 the fourth card is still in play), and it never believes the opponent holds more of a rank
+ * than they do. Then checks that in singles, where an ask only takes one card, the counter still remembers
+ * the cards of the rank the opponent kept.
+ * Throws an AssertionError at the first thing that is wrong.
+ */
+public class CardCountingStrategyTest {
+    private static final int GAMES = 300;
+
+    public static void main(String[] args){
+        for (GameMode mode : GameMode.values()){
+            countsMatchTheGame(mode);
+        }
+        singlesRemembersTheCardsKept();
+        System.out.println("CardCountingStrategyTest passed");
+    }
+
+    private static void countsMatchTheGame(GameMode mode){
+        for (long seed = 0; seed < GAMES; seed++){
+            CardCountingStrategy counter = new CardCountingStrategy();
+            Player me = new Player("A", counter);
+            Player opponent = new Player("B", new RandomStrategy());
+            GoFish game = new GoFish(mode, seed, new Player[]{me, opponent});
+            int steps = 0;
+            while (!game.isGameOver()){
+                game.step();
+                check(++steps < 100_000, mode + " seed " + seed + " never ended");
+                for (Rank rank : Rank.values()){
+                    int inPlay = me.countRank(rank) + opponent.countRank(rank) + countInDeck(game.getDeck(), rank);
+                    check(counter.getOutOfPlay(rank) == 4 - inPlay, mode + " seed " + seed + ": counted "
+                            + counter.getOutOfPlay(rank) + " " + rank + "s out of play, not " + (4 - inPlay));
+                    check(counter.getOpponentHolds(rank) <= opponent.countRank(rank), mode + " seed " + seed
+                            + ": believes the opponent holds " + counter.getOpponentHolds(rank) + " " + rank
+                            + "s, not " + opponent.countRank(rank));
+                }
+            }
+        }
+    }
+
+    private static void singlesRemembersTheCardsKept(){
+        CardCountingStrategy counter = new CardCountingStrategy();
+        Player me = new Player("A", counter);
+        Player opponent = new Player("B", new RandomStrategy());
+        counter.gameStarted(GameMode.SINGLES, new Player[]{me, opponent});
+
+        counter.asked(opponent, me, Rank.KING); //they hold a king
+        counter.handedOver(opponent, me, Rank.KING, 1L << Card.indexOf(Rank.KING, Suit.HEARTS)); //and now another
+        check(counter.getOpponentHolds(Rank.KING) == 2, "lost count of the king handed to the opponent");
+        counter.handedOver(me, opponent, Rank.KING, 1L << Card.indexOf(Rank.KING, Suit.SPADES)); //they give one back
+        check(counter.getOpponentHolds(Rank.KING) == 1, "forgot the king the opponent kept in singles");
+    }
+
+    private static int countInDeck(Deck deck, Rank rank){
+        int count = 0;
+        for (int pos = 0; pos < deck.size(); pos++){
+            if (deck.cardIndexAt(pos) / 4 == rank.ordinal()){
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void check(boolean ok, String message){
+        if (!ok){
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Compilation: javac -d out src/*.java test/EndgameTablebaseTest.java
+ * Execution: java -cp out EndgameTablebaseTest
+ *
+ * Generates small pairs and books tablebases and checks them against EndgameSolver: from the endgame of many
+ * games, every position along the tablebase's own line of play must have the solver's value, and the tablebase's
+ * best ask must make that value. Then checks that a file recording another hash scheme is refused.
+ * Throws an AssertionError at the first thing that is wrong.
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class EndgameTablebaseTest {
+    private static final int GAMES = 300;
+
+    public static void main(String[] args) throws IOException {
+        Path file = Files.createTempFile("tablebase", ".gftb");
+        try {
+            matchesTheSolver(GameMode.PAIRS, 10, file);
+            matchesTheSolver(GameMode.BOOKS, 12, file);
+            refusesAnotherHashScheme(file);
+        }
+        finally {
+            Files.deleteIfExists(file);
+        }
+        System.out.println("EndgameTablebaseTest passed");
+    }
+
+    private static void matchesTheSolver(GameMode mode, int maxCards, Path file) throws IOException {
+        EndgameTablebase.generate(mode, maxCards, file);
+        EndgameTablebase tablebase = EndgameTablebase.open(file);
+        EndgameSolver solver = new EndgameSolver();
+        int checked = 0;
+        for (long seed = 0; seed < GAMES; seed++){
+            GoFish game = new GoFish(mode, seed, new Player[]{
+                    new Player("A", new RandomStrategy()), new Player("B", new RandomStrategy())});
+            while (!game.isGameOver() && (game.getPhase() != TurnPhase.ASK || cardsLeft(game) > maxCards)){
+                game.step();
+            }
+
+            GameState state = GameState.of(game);
+            while (!state.isGameOver()){
+                int value = solver.solve(state);
+                check(tablebase.value(state) == value, mode + " seed " + seed + ": the tablebase says "
+                        + tablebase.value(state) + ", the solver " + value + " for\n" + state);
+                Rank best = tablebase.bestAsk(state);
+                GameState next = state.apply(best);
+                int mover = state.getCurrentPlayer();
+                int made = next.getScore(mover) - state.getScore(mover) + (next.getCurrentPlayer() == mover
+                        ? solver.solve(next) : EndgameSolver.remainingPoints(next) - solver.solve(next));
+                check(made == value, mode + " seed " + seed + ": asking for " + best + " makes " + made
+                        + ", not " + value + ", in\n" + state);
+                state = next;
+                checked++;
+            }
+        }
+        check(checked > GAMES, "only " + checked + " " + mode + " positions were checked");
+    }
+
+    private static void refusesAnotherHashScheme(Path file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).putInt(24, 2);
+        Files.write(file, bytes);
+        try {
+            EndgameTablebase.open(file);
+        }
+        catch (IllegalArgumentException e){
+            return;
+        }
+        throw new AssertionError("a tablebase with an unknown hash scheme was opened");
+    }
+
+    private static int cardsLeft(GoFish game){
+        Player[] players = game.getPlayers();
+        return players[0].getHandSize() + players[1].getHandSize() + game.getDeck().size();
+    }
+
+    private static void check(boolean ok, String message){
+        if (!ok){
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * Compilation: javac -d out src/*.java test/GameCheckpointTest.java
+ * Execution: java -cp out GameCheckpointTest
+ *
+ * Saves games part way through, restores them under listeners that remember the game they are told about
+ * (MetricsListener, EventLog, ConsoleListener, CardCountingStrategy), and plays them to the end.
+ * Before restore() sent gameResumed, the first step after a restore threw a NullPointerException.
+ * Then plays saved games on both from the original and from the checkpoint, in every mode, and checks that
+ * they end alike: the same scores, turns and winner.
+ * Throws an AssertionError at the first thing that is wrong.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+public class GameCheckpointTest {
+    private static final int GAMES = 200;
+
+    public static void main(String[] args){
+        for (GameMode mode : new GameMode[]{GameMode.PAIRS, GameMode.BOOKS}){
+            restoresUnderListeners(mode);
+        }
+        for (GameMode mode : GameMode.values()){
+            playsOnLikeTheOriginal(mode);
+        }
+        System.out.println("GameCheckpointTest passed");
+    }
+
+    private static void restoresUnderListeners(GameMode mode){
+        MetricsRegistry metrics = new MetricsRegistry();
+        EventLog log = new EventLog();
+        for (long seed = 0; seed < GAMES; seed++){
+            GoFish original = new GoFish(mode, seed, new Player[]{
+                    new Player("A", new CardCountingStrategy()), new Player("B", new RandomStrategy())});
+            while (original.getTurn() < 8 || original.getPhase() != TurnPhase.ASK){
+                original.step();
+            }
+            GameCheckpoint checkpoint = original.checkpoint();
+
+            KnowingStrategy knowing = new KnowingStrategy();
+            Player[] players = {new Player("A", knowing), new Player("B", new RandomStrategy())};
+            ConsoleListener console = new ConsoleListener(new PrintStream(new ByteArrayOutputStream()));
+            GoFish restored = GoFish.restore(checkpoint, players,
+                    new MulticastListener(new MetricsListener(metrics), log, console));
+            check(knowing.getGameMode() == mode, "the strategy wasn't told the rules");
+            check(knowing.isMe(players[0]), "the strategy doesn't know which player it is");
+
+            int steps = 0;
+            while (!restored.isGameOver()){
+                restored.step();
+                check(++steps < 100_000, mode + " seed " + seed + " never ended");
+            }
+            check(log.size() > 0, "nothing was logged after the restore");
+        }
+        long games = metrics.snapshot().getCounter("gofish_games_total{mode=\""
+                + GameMode.modeToString(mode).toLowerCase() + "\"}");
+        check(games == GAMES, "metrics counted " + games + " restored " + mode + " games, not " + GAMES);
+    }
+
+    private static void playsOnLikeTheOriginal(GameMode mode){
+        for (long seed = 0; seed < GAMES; seed++){
+            Player[] originalPlayers = {new Player("A", new RandomStrategy()), new Player("B", new RandomStrategy())};
+            GoFish original = new GoFish(mode, seed, originalPlayers);
+            while (original.getTurn() < 8 || original.getPhase() != TurnPhase.ASK){
+                original.step();
+            }
+            GameCheckpoint checkpoint = original.checkpoint();
+            Player[] restoredPlayers = {new Player("A", new RandomStrategy()), new Player("B", new RandomStrategy())};
+            GoFish restored = GoFish.restore(checkpoint, restoredPlayers, SilentListener.INSTANCE);
+
+            playOut(original, mode, seed);
+            playOut(restored, mode, seed);
+            String game = mode + " seed " + seed + ": ";
+            for (int i = 0; i < 2; i++){
+                check(restored.getScore(restoredPlayers[i]) == original.getScore(originalPlayers[i]), game + "player "
+                        + i + " scored " + restored.getScore(restoredPlayers[i]) + " after the restore, not "
+                        + original.getScore(originalPlayers[i]));
+            }
+            check(restored.getTurn() == original.getTurn(), game + "the restored game took " + restored.getTurn()
+                    + " turns, not " + original.getTurn());
+            check(winner(restored, restoredPlayers) == winner(original, originalPlayers),
+                    game + "the restored game had another winner");
+        }
+    }
+
+    private static void playOut(GoFish game, GameMode mode, long seed){
+        int steps = 0;
+        while (!game.isGameOver()){
+            game.step();
+            check(++steps < 100_000, mode + " seed " + seed + " never ended");
+        }
+    }
+
+    /**
+     * @return (int) 0 or 1 for the player who won, -1 for a draw
+     */
+    private static int winner(GoFish game, Player[] players){
+        int difference = game.getScore(players[0]) - game.getScore(players[1]);
+        return difference > 0 ? 0 : difference < 0 ? 1 : -1;
+    }
+
+    private static void check(boolean ok, String message){
+        if (!ok){
+            throw new AssertionError(message);
+        }
+    }
+
+    /**
+     * A CardCountingStrategy that says which player it believes it is.
+     */
+    private static final class KnowingStrategy extends CardCountingStrategy {
+        private Player me;
+
+        public void gameStarted(GameMode gameMode, Player[] players){
+            super.gameStarted(gameMode, players);
+            me = players[0].getStrategy() == this ? players[0] : players[1];
+        }
+
+        boolean isMe(Player player){
+            return me == player;
+        }
+
+        protected GameMode getGameMode(){
+            return super.getGameMode();
+        }
+    }
+}